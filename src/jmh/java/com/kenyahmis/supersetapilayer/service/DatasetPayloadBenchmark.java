@@ -0,0 +1,112 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.model.DatasetColumn;
+import com.kenyahmis.supersetapilayer.model.DatasetDetail;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-dataset payload work: reading a dataset response, building the description update body and building an
+ * import bundle for one chunk of new datasets.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatasetPayloadBenchmark {
+    private static final int IMPORT_CHUNK_SIZE = 100;
+
+    @Param({"50", "500"})
+    public int columns;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SupersetDatasetReader reader;
+    private DatasetImportService importService;
+    private DatasetImportService.DatabaseExport database;
+    private byte[] payload;
+    private List<DatasetColumn> datasetColumns;
+    private SchemaSnapshot reportingSchema;
+    private List<String> importChunk;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reader = new SupersetDatasetReader(null, null, null, objectMapper, null);
+        importService = new DatasetImportService(null, null, null);
+        database = new DatasetImportService.DatabaseExport("REPORTING.yaml", "REPORTING",
+                "11111111-1111-1111-1111-111111111111",
+                "database_name: REPORTING\nuuid: 11111111-1111-1111-1111-111111111111\n".getBytes(StandardCharsets.UTF_8));
+        payload = SyntheticSchemas.datasetPayload(columns).getBytes(StandardCharsets.UTF_8);
+        datasetColumns = SyntheticSchemas.datasetColumns(columns);
+        reportingSchema = SyntheticSchemas.reportingSchema(IMPORT_CHUNK_SIZE, columns);
+        importChunk = new ArrayList<>(reportingSchema.getTableNames());
+    }
+
+    @Benchmark
+    public DatasetDetail streamingRead() throws IOException {
+        return reader.read(1, new ByteArrayInputStream(payload));
+    }
+
+    /**
+     * Baseline: the full JSON tree the dataset reads used to build.
+     */
+    @Benchmark
+    public JsonNode treeRead() throws IOException {
+        return objectMapper.readTree(payload);
+    }
+
+    @Benchmark
+    public byte[] descriptionUpdateBody() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        APIService.descriptionUpdateBody(objectMapper, "Table description", describedColumns()).writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Baseline: the body built as a map and serialized in one go, as the description update used to.
+     */
+    @Benchmark
+    public byte[] mapUpdateBody() throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("description", "Table description");
+        body.put("columns", describedColumns());
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] importBundle() {
+        return importService.buildBundle(importChunk, reportingSchema, database);
+    }
+
+    private List<DatasetColumn> describedColumns() {
+        List<DatasetColumn> described = new ArrayList<>(datasetColumns.size());
+        for (DatasetColumn column : datasetColumns) {
+            described.add(column.withDescription("Description of " + column.columnName()));
+        }
+        return described;
+    }
+}
@@ -0,0 +1,66 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.model.SchemaDiff;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schema comparison behind the changelog: table set difference, full schema diff and changelog text.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SchemaDiffBenchmark {
+    private static final Set<String> EXCLUSIONS = Set.of("sysdiagrams");
+
+    @Param({"100", "1000", "5000"})
+    public int tables;
+
+    @Param({"50", "500"})
+    public int columns;
+
+    private final SchemaDiffEngine schemaDiffEngine = new SchemaDiffEngine();
+    private SchemaSnapshot reporting;
+    private SchemaSnapshot superset;
+    private SchemaDiff diff;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reporting = SyntheticSchemas.reportingSchema(tables, columns);
+        superset = SyntheticSchemas.supersetSchema(tables, columns);
+        diff = schemaDiffEngine.diff(reporting, superset, EXCLUSIONS);
+    }
+
+    @Benchmark
+    public List<String> tableDifference() {
+        return SchemaDiffEngine.difference(reporting.getTableNames(), superset.getTableNames());
+    }
+
+    @Benchmark
+    public SchemaDiff diff() {
+        return schemaDiffEngine.diff(reporting, superset, EXCLUSIONS);
+    }
+
+    @Benchmark
+    public String formatChangeLog() {
+        return schemaDiffEngine.formatChangeLog(diff);
+    }
+}
@@ -0,0 +1,87 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.model.ColumnSchema;
+import com.kenyahmis.supersetapilayer.model.DatasetColumn;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic schemas and payloads shaped like the reporting warehouse, for the benchmarks.
+ */
+final class SyntheticSchemas {
+    private static final String[] TYPES = {"int", "nvarchar", "datetime", "decimal", "bit", "date"};
+
+    private SyntheticSchemas() {
+    }
+
+    static SchemaSnapshot reportingSchema(int tables, int columns) {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        for (int table = 0; table < tables; table++) {
+            for (int column = 0; column < columns; column++) {
+                snapshot.addColumn("Table" + table, new ColumnSchema("Column" + column, TYPES[column % TYPES.length],
+                        column + 1, column % 3 != 0));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * The same schema as seen by Superset after some drift: every tenth table is missing, every twentieth table is
+     * extra, and a few columns per table were renamed or retyped.
+     */
+    static SchemaSnapshot supersetSchema(int tables, int columns) {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        for (int table = 0; table < tables; table++) {
+            if (table % 10 == 0) {
+                continue;
+            }
+            for (int column = 0; column < columns; column++) {
+                String name = column % 50 == 1 ? "Renamed" + column : "Column" + column;
+                String type = column % 50 == 2 ? "VARCHAR" : TYPES[column % TYPES.length].toUpperCase();
+                snapshot.addColumn("Table" + table, new ColumnSchema(name, type, column + 1, null));
+            }
+        }
+        for (int table = 0; table < tables / 20; table++) {
+            snapshot.addColumn("Retired" + table, new ColumnSchema("Column0", "INTEGER", 1, null));
+        }
+        return snapshot;
+    }
+
+    static List<DatasetColumn> datasetColumns(int columns) {
+        List<DatasetColumn> result = new ArrayList<>(columns);
+        for (int column = 0; column < columns; column++) {
+            result.add(new DatasetColumn(column + 1, "Column" + column, TYPES[column % TYPES.length].toUpperCase(),
+                    null, null, null, true, true, true, column % TYPES.length == 2, null, null,
+                    "00000000-0000-0000-0000-" + String.format("%012d", column)));
+        }
+        return result;
+    }
+
+    /**
+     * A full {@code /api/v1/dataset/{id}} response, including the fields a projected read leaves out.
+     */
+    static String datasetPayload(int columns) {
+        StringBuilder json = new StringBuilder(columns * 400);
+        json.append("{\"id\":1,\"result\":{\"table_name\":\"Linelist\",\"sql\":null,\"extra\":\"{}\",")
+                .append("\"metrics\":[{\"id\":1,\"metric_name\":\"count\",\"expression\":\"COUNT(*)\"}],")
+                .append("\"owners\":[{\"id\":1,\"first_name\":\"admin\",\"last_name\":\"user\"}],\"columns\":[");
+        for (int column = 0; column < columns; column++) {
+            if (column > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(column + 1)
+                    .append(",\"column_name\":\"Column").append(column)
+                    .append("\",\"type\":\"").append(TYPES[column % TYPES.length].toUpperCase())
+                    .append("\",\"type_generic\":1,\"verbose_name\":null,\"description\":\"Description of column ")
+                    .append(column).append("\",\"expression\":null,\"filterable\":true,\"groupby\":true,")
+                    .append("\"is_active\":true,\"is_dttm\":false,\"extra\":null,\"advanced_data_type\":null,")
+                    .append("\"python_date_format\":null,\"changed_on\":\"2024-01-01T00:00:00\",")
+                    .append("\"created_on\":\"2024-01-01T00:00:00\",\"uuid\":\"00000000-0000-0000-0000-")
+                    .append(String.format("%012d", column)).append("\"}");
+        }
+        json.append("]}}");
+        return json.toString();
+    }
+}
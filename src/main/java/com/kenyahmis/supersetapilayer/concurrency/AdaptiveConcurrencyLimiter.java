@@ -0,0 +1,133 @@
+package com.kenyahmis.supersetapilayer.concurrency;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limiter: the limit grows by roughly one slot per window of successful calls and is
+ * halved when the downstream signals overload (429/5xx, timeouts) or the median latency of a window of calls
+ * rises well above that of earlier windows. After a decrease, further overload signals are ignored until the
+ * calls that were in flight at the time have finished, so one burst of errors halves the limit only once.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double BACKOFF_RATIO = 0.5;
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final double LATENCY_SPIKE_FACTOR = 2.0;
+    static final int LATENCY_WINDOW = 20;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotAvailable = lock.newCondition();
+    private final long[] latencyWindow = new long[LATENCY_WINDOW];
+    private double limit;
+    private int inFlight;
+    private int windowSamples;
+    // Smoothed median latency of past windows, 0 until the first window is complete
+    private double baselineLatencyNanos;
+    private int drainingSinceBackOff;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+    }
+
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                slotAvailable.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess(long latencyNanos) {
+        lock.lock();
+        try {
+            boolean inBurst = release();
+            if (isLatencySpike(latencyNanos)) {
+                if (!inBurst) {
+                    backOff();
+                }
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onOverload() {
+        lock.lock();
+        try {
+            if (!release()) {
+                backOff();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Releases a slot after a failure that says nothing about downstream load, e.g. a 404. */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns whether the call was already in flight at the last decrease
+    private boolean release() {
+        inFlight--;
+        slotAvailable.signalAll();
+        if (drainingSinceBackOff > 0) {
+            drainingSinceBackOff--;
+            return true;
+        }
+        return false;
+    }
+
+    // Judged once per window on the median, since single calls vary a lot with the width of the table
+    private boolean isLatencySpike(long latencyNanos) {
+        latencyWindow[windowSamples++] = latencyNanos;
+        if (windowSamples < LATENCY_WINDOW) {
+            return false;
+        }
+        windowSamples = 0;
+        long[] sorted = latencyWindow.clone();
+        Arrays.sort(sorted);
+        long median = sorted[LATENCY_WINDOW / 2];
+        boolean spike = median > latencyThresholdNanos
+                || (baselineLatencyNanos > 0 && median > baselineLatencyNanos * LATENCY_SPIKE_FACTOR);
+        baselineLatencyNanos = baselineLatencyNanos == 0 ? median
+                : baselineLatencyNanos + LATENCY_SMOOTHING * (median - baselineLatencyNanos);
+        return spike;
+    }
+
+    private void backOff() {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        drainingSinceBackOff = inFlight;
+    }
+}
@@ -0,0 +1,59 @@
+package com.kenyahmis.supersetapilayer.config;
+
+import com.kenyahmis.supersetapilayer.properties.ConnectionPoolProperties;
+import com.kenyahmis.supersetapilayer.properties.ReportingDatabaseProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetDatabaseProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Opens the first connection of each pool in the background once the application is up, so the first
+ * request does not pay for the login handshake. Failures are logged and otherwise ignored.
+ */
+@Component
+public class DataSourceWarmUp {
+    private final HikariDataSource mssqlDatasource;
+    private final HikariDataSource postgresDatasource;
+    private final ReportingDatabaseProperties reportingDatabaseProperties;
+    private final SupersetDatabaseProperties supersetDatabaseProperties;
+    private final static Logger LOG = LoggerFactory.getLogger(DataSourceWarmUp.class);
+
+    public DataSourceWarmUp(HikariDataSource mssqlDatasource, HikariDataSource postgresDatasource,
+                            ReportingDatabaseProperties reportingDatabaseProperties,
+                            SupersetDatabaseProperties supersetDatabaseProperties) {
+        this.mssqlDatasource = mssqlDatasource;
+        this.postgresDatasource = postgresDatasource;
+        this.reportingDatabaseProperties = reportingDatabaseProperties;
+        this.supersetDatabaseProperties = supersetDatabaseProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        warmUp(mssqlDatasource, reportingDatabaseProperties.getPool());
+        warmUp(postgresDatasource, supersetDatabaseProperties.getPool());
+    }
+
+    private void warmUp(HikariDataSource dataSource, ConnectionPoolProperties pool) {
+        if (!pool.isWarmUp()) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            try (Connection connection = dataSource.getConnection()) {
+                connection.isValid((int) pool.getValidationTimeout().toSeconds());
+                LOG.info("Warmed up {} connection pool in {} ms", dataSource.getPoolName(), System.currentTimeMillis() - start);
+            } catch (SQLException | RuntimeException e) {
+                LOG.warn("Could not warm up {} connection pool: {}", dataSource.getPoolName(), e.getMessage());
+            }
+        }, dataSource.getPoolName() + "-pool-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
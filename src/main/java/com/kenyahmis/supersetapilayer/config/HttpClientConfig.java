@@ -0,0 +1,151 @@
+package com.kenyahmis.supersetapilayer.config;
+
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.metrics.OutboundRequestMetricsInterceptor;
+import com.kenyahmis.supersetapilayer.properties.HttpClientProperties;
+import com.kenyahmis.supersetapilayer.properties.OpenmetadataApiProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pooled keep-alive HTTP client behind the shared {@code RestClient}. Connection limits and timeouts are taken
+ * from the Superset and OpenMetadata properties for their respective hosts; gzip/deflate responses are
+ * requested and decoded transparently.
+ */
+@Configuration
+public class HttpClientConfig {
+    private final Logger LOG = LoggerFactory.getLogger(HttpClientConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient(SupersetApiProperties supersetApiProperties,
+                                                  OpenmetadataApiProperties openmetadataApiProperties) {
+        Map<String, HttpClientProperties> hostSettings = hostSettings(supersetApiProperties, openmetadataApiProperties);
+        HttpClientProperties defaults = supersetApiProperties.getHttp();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setConnectionConfigResolver(route -> connectionConfig(settingsFor(route.getTargetHost(), hostSettings, defaults)))
+                .setMaxConnPerRoute(defaults.getMaxConnections())
+                .setMaxConnTotal(hostSettings.values().stream().mapToInt(HttpClientProperties::getMaxConnections).sum()
+                        + defaults.getMaxConnections())
+                .build();
+        registerRoute(connectionManager, supersetApiProperties.getBaseUrl(), supersetApiProperties.getHttp());
+        registerRoute(connectionManager, openmetadataApiProperties.getBaseUrl(), openmetadataApiProperties.getHttp());
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig(defaults))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(defaults.getKeepAlive()))
+                .build();
+    }
+
+    @Bean
+    public HttpComponentsClientHttpRequestFactory outboundRequestFactory(CloseableHttpClient outboundHttpClient,
+                                                                         SupersetApiProperties supersetApiProperties,
+                                                                         OpenmetadataApiProperties openmetadataApiProperties) {
+        Map<String, HttpClientProperties> hostSettings = hostSettings(supersetApiProperties, openmetadataApiProperties);
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(outboundHttpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            HttpClientProperties settings = uri.getHost() == null ? null : hostSettings.get(uri.getHost().toLowerCase(Locale.ROOT));
+            if (settings != null) {
+                context.setRequestConfig(requestConfig(settings));
+            }
+            return context;
+        });
+        return requestFactory;
+    }
+
+    @Bean
+    public RestClient defaultClient(OutboundMetrics outboundMetrics, SupersetApiProperties supersetApiProperties,
+                                    OpenmetadataApiProperties openmetadataApiProperties,
+                                    HttpComponentsClientHttpRequestFactory outboundRequestFactory) {
+        return RestClient.builder()
+                .requestFactory(outboundRequestFactory)
+                .requestInterceptor(new OutboundRequestMetricsInterceptor(outboundMetrics, supersetApiProperties,
+                        openmetadataApiProperties))
+                .build();
+    }
+
+    private static ConnectionConfig connectionConfig(HttpClientProperties settings) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(settings.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(settings.getReadTimeout()))
+                .build();
+    }
+
+    private static RequestConfig requestConfig(HttpClientProperties settings) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(settings.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(settings.getReadTimeout()))
+                // Used when the server does not send a Keep-Alive header
+                .setConnectionKeepAlive(TimeValue.of(settings.getKeepAlive()))
+                .setContentCompressionEnabled(true)
+                .build();
+    }
+
+    private static HttpClientProperties settingsFor(HttpHost host, Map<String, HttpClientProperties> hostSettings,
+                                                    HttpClientProperties defaults) {
+        return host == null ? defaults : hostSettings.getOrDefault(host.getHostName().toLowerCase(Locale.ROOT), defaults);
+    }
+
+    private Map<String, HttpClientProperties> hostSettings(SupersetApiProperties supersetApiProperties,
+                                                           OpenmetadataApiProperties openmetadataApiProperties) {
+        Map<String, HttpClientProperties> hostSettings = new HashMap<>();
+        HttpHost superset = target(supersetApiProperties.getBaseUrl());
+        if (superset != null) {
+            hostSettings.put(superset.getHostName().toLowerCase(Locale.ROOT), supersetApiProperties.getHttp());
+        }
+        HttpHost openmetadata = target(openmetadataApiProperties.getBaseUrl());
+        if (openmetadata != null) {
+            hostSettings.put(openmetadata.getHostName().toLowerCase(Locale.ROOT), openmetadataApiProperties.getHttp());
+        }
+        return hostSettings;
+    }
+
+    private void registerRoute(PoolingHttpClientConnectionManager connectionManager, String baseUrl,
+                               HttpClientProperties settings) {
+        HttpHost target = target(baseUrl);
+        if (target != null) {
+            connectionManager.setMaxPerRoute(new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName())),
+                    settings.getMaxConnections());
+        }
+    }
+
+    // OpenMetadata is configured as a bare host and always reached over https
+    private HttpHost target(String baseUrl) {
+        if (baseUrl == null || baseUrl.isBlank()) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(baseUrl.contains("://") ? baseUrl : "https://" + baseUrl);
+            if (uri.getHost() == null) {
+                return null;
+            }
+            int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+            return new HttpHost(uri.getScheme(), uri.getHost(), port);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Ignoring unparseable base URL {} for HTTP connection settings", baseUrl);
+            return null;
+        }
+    }
+}
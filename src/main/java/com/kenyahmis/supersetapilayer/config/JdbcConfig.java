@@ -1,36 +1,54 @@
 package com.kenyahmis.supersetapilayer.config;
 
+import com.kenyahmis.supersetapilayer.properties.ConnectionPoolProperties;
 import com.kenyahmis.supersetapilayer.properties.ReportingDatabaseProperties;
 import com.kenyahmis.supersetapilayer.properties.SupersetDatabaseProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 
 @Configuration
 public class JdbcConfig {
 
+    // Pools of additional targets are named after the target, e.g. superset-uganda
     @Bean
-    public DataSource mssqlDatasource(ReportingDatabaseProperties reportingDatabaseProperties) {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+    public HikariDataSource mssqlDatasource(ReportingDatabaseProperties reportingDatabaseProperties,
+                                            @Value("${target.name:}") String targetName) {
+        return reportingDataSource(poolName("reporting", targetName), reportingDatabaseProperties);
+    }
+
+    @Bean
+    public HikariDataSource postgresDatasource(SupersetDatabaseProperties supersetDatabaseProperties,
+                                               @Value("${target.name:}") String targetName) {
+        return supersetDataSource(poolName("superset", targetName), supersetDatabaseProperties);
+    }
+
+    private HikariDataSource reportingDataSource(String poolName, ReportingDatabaseProperties reportingDatabaseProperties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
         dataSource.setDriverClassName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
-        dataSource.setUrl(String.format("jdbc:sqlserver://%s;encrypt=false;databaseName=%s",
-                reportingDatabaseProperties.getHost(), reportingDatabaseProperties.getDatabase()));
+        dataSource.setJdbcUrl(String.format("jdbc:sqlserver://%s;encrypt=false;databaseName=%s;disableStatementPooling=false;statementPoolingCacheSize=%d",
+                reportingDatabaseProperties.getHost(), reportingDatabaseProperties.getDatabase(),
+                reportingDatabaseProperties.getStatementCacheSize()));
         dataSource.setUsername(reportingDatabaseProperties.getUsername());
         dataSource.setPassword(reportingDatabaseProperties.getPassword());
+        configurePool(dataSource, reportingDatabaseProperties.getPool());
         return dataSource;
     }
 
-    @Bean
-    public DataSource postgresDatasource(SupersetDatabaseProperties supersetDatabaseProperties) {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+    private HikariDataSource supersetDataSource(String poolName, SupersetDatabaseProperties supersetDatabaseProperties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
         dataSource.setDriverClassName("org.postgresql.Driver");
-        dataSource.setUrl(String.format("jdbc:postgresql://%s:3306/%s", supersetDatabaseProperties.getHost(),
-                supersetDatabaseProperties.getDatabase()));
+        dataSource.setJdbcUrl(String.format("jdbc:postgresql://%s:%d/%s", supersetDatabaseProperties.getHost(),
+                supersetDatabaseProperties.getPort(), supersetDatabaseProperties.getDatabase()));
         dataSource.setUsername(supersetDatabaseProperties.getUsername());
         dataSource.setPassword(supersetDatabaseProperties.getPassword());
+        configurePool(dataSource, supersetDatabaseProperties.getPool());
         return dataSource;
     }
 
@@ -43,4 +61,17 @@ public class JdbcConfig {
     public JdbcTemplate postgresJdbcTemplate(DataSource postgresDatasource) {
         return new JdbcTemplate(postgresDatasource);
     }
+
+    private static String poolName(String database, String targetName) {
+        return targetName.isEmpty() ? database : database + "-" + targetName;
+    }
+
+    private void configurePool(HikariDataSource dataSource, ConnectionPoolProperties pool) {
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setMinimumIdle(pool.getMinimumIdle());
+        dataSource.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        dataSource.setValidationTimeout(pool.getValidationTimeout().toMillis());
+        dataSource.setIdleTimeout(pool.getIdleTimeout().toMillis());
+        dataSource.setMaxLifetime(pool.getMaxLifetime().toMillis());
+    }
 }
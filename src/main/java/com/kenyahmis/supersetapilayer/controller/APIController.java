@@ -1,42 +1,182 @@
 package com.kenyahmis.supersetapilayer.controller;
 
+import com.kenyahmis.supersetapilayer.model.Job;
+import com.kenyahmis.supersetapilayer.model.JobProgress;
+import com.kenyahmis.supersetapilayer.model.SchemaDiff;
+import com.kenyahmis.supersetapilayer.model.SnapshotInfo;
+import com.kenyahmis.supersetapilayer.model.WorkQueueRun;
 import com.kenyahmis.supersetapilayer.service.APIService;
+import com.kenyahmis.supersetapilayer.service.JobService;
+import com.kenyahmis.supersetapilayer.service.TargetService;
+import com.kenyahmis.supersetapilayer.service.WorkQueueService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
 @RestController
 @RequestMapping("/api")
 public class APIController {
     private final APIService apiService;
+    private final JobService jobService;
+    private final WorkQueueService workQueueService;
+    private final TargetService targetService;
 
-    public APIController(APIService apiService) {
+    public APIController(APIService apiService, JobService jobService, WorkQueueService workQueueService,
+                         TargetService targetService) {
         this.apiService = apiService;
+        this.jobService = jobService;
+        this.workQueueService = workQueueService;
+        this.targetService = targetService;
     }
 
     @PutMapping(path = "/dataset/refresh")
-    private ResponseEntity<String> refreshDatasets() {
-        apiService.refreshDatasets();
-        return new ResponseEntity<>("Datasets refreshed", HttpStatus.OK);
+    private ResponseEntity<Job> refreshDatasets(@RequestParam(defaultValue = "false") boolean changedOnly,
+                                                @RequestParam(required = false) String target) {
+        return submit(jobKey("refresh", changedOnly ? "changed" : null), target,
+                (service, progress) -> service.refreshDatasets(changedOnly, progress));
     }
 
     @PutMapping(path = "/dataset/description")
-    private ResponseEntity<String> updateDescriptions() {
-        apiService.populateDescriptions();
-        return new ResponseEntity<>("Dataset Descriptions added", HttpStatus.OK);
+    private ResponseEntity<Job> updateDescriptions(@RequestParam(defaultValue = "false") boolean force,
+                                                   @RequestParam(defaultValue = "false") boolean incremental,
+                                                   @RequestParam(required = false) String target) {
+        String jobKey = jobKey("description", force ? "force" : null, incremental ? "incremental" : null);
+        return submit(jobKey, target, (service, progress) -> {
+            service.populateDescriptions(force, incremental, progress);
+            return null;
+        });
     }
 
     @PutMapping(path = "/dataset/sync")
-    private ResponseEntity<String> syncDatasets() {
-        apiService.addNewDatasets();
-        return new ResponseEntity<>("New datasets synced", HttpStatus.OK);
+    private ResponseEntity<Job> syncDatasets(@RequestParam(defaultValue = "false") boolean bulk,
+                                             @RequestParam(required = false) String target) {
+        return submit(jobKey("sync", bulk ? "bulk" : null), target,
+                (service, progress) -> service.addNewDatasets(bulk, progress));
+    }
+
+    @PutMapping(path = "/dataset/rls")
+    private ResponseEntity<Job> provisionRowLevelSecurity(@RequestParam(required = false) String target) {
+        return submit("rls", target, (service, progress) -> service.provisionRowLevelSecurity());
     }
     @GetMapping(path = "/dataset/changelog")
-    private ResponseEntity<String> generateChangeLog() {
-            apiService.generateAndShareChangeLog();
-            return new ResponseEntity<>("Dataset changelog generated", HttpStatus.OK);
+    private ResponseEntity<Job> generateChangeLog(@RequestParam(defaultValue = "false") boolean compareWithSuperset,
+                                                  @RequestParam(required = false) String target) {
+            return submit(jobKey("changelog", compareWithSuperset ? "superset" : null), target,
+                    (service, progress) -> service.generateAndShareChangeLog(compareWithSuperset));
+    }
+
+    @GetMapping(path = "/dataset/snapshots")
+    private ResponseEntity<List<SnapshotInfo>> getSchemaSnapshots(@RequestParam(required = false) String target) {
+        return resolve(target)
+                .map(service -> new ResponseEntity<>(service.getSchemaSnapshots(), HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping(path = "/dataset/changelog/history")
+    private ResponseEntity<SchemaDiff> getChangeLogHistory(@RequestParam String from, @RequestParam String to,
+                                                           @RequestParam(required = false) String target) {
+        Optional<APIService> service = resolve(target);
+        if (service.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        try {
+            return new ResponseEntity<>(service.get().getChangeLogHistory(from, to), HttpStatus.OK);
+        } catch (NoSuchElementException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @GetMapping(path = "/targets")
+    private ResponseEntity<List<String>> getTargets() {
+        return new ResponseEntity<>(targetService.getTargetNames(), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/jobs")
+    private ResponseEntity<List<Job>> getJobs() {
+        return new ResponseEntity<>(jobService.getJobs(), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/jobs/{id}")
+    private ResponseEntity<Job> getJob(@PathVariable String id) {
+        return jobService.getJob(id)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @DeleteMapping(path = "/jobs/{id}")
+    private ResponseEntity<Job> cancelJob(@PathVariable String id) {
+        return jobService.cancel(id)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @PutMapping(path = "/queue/{operation}")
+    private ResponseEntity<WorkQueueRun> submitQueueRun(@PathVariable String operation) {
+        if (!workQueueService.isEnabled()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        try {
+            return new ResponseEntity<>(workQueueService.submit(operation), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(path = "/queue/runs/{id}")
+    private ResponseEntity<WorkQueueRun> getQueueRun(@PathVariable String id) {
+        if (!workQueueService.isEnabled()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return workQueueService.getRun(id)
+                .map(run -> new ResponseEntity<>(run, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    // Without configured targets operations run on the default instance, otherwise on every target or the one named
+    private ResponseEntity<Job> submit(String operation, String target,
+                                       BiFunction<APIService, JobProgress, Object> work) {
+        if (!targetService.hasTargets()) {
+            if (target != null) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            return accepted(jobService.submit(operation, progress -> work.apply(apiService, progress)));
+        }
+        if (target != null && targetService.getApiService(target).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        List<String> targets = target == null ? targetService.getTargetNames() : List.of(target);
+        String jobKey = target == null ? operation : operation + "@" + target;
+        return accepted(jobService.submit(jobKey, progress -> targetService.runOnTargets(targets, work, progress)));
+    }
+
+    // Requests that differ in an option that changes what the job does are separate jobs; only identical
+    // requests share a running one
+    private static String jobKey(String operation, String... options) {
+        StringBuilder key = new StringBuilder(operation);
+        for (String option : options) {
+            if (option != null) {
+                key.append(':').append(option);
+            }
+        }
+        return key.toString();
+    }
+
+    private Optional<APIService> resolve(String target) {
+        return target == null ? Optional.of(apiService) : targetService.getApiService(target);
+    }
+
+    private ResponseEntity<Job> accepted(Job job) {
+        return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
     }
 }
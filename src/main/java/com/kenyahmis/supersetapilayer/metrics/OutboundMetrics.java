@@ -0,0 +1,53 @@
+package com.kenyahmis.supersetapilayer.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency and outcome of every call the service makes to Superset, OpenMetadata, the databases and SMTP,
+ * published as the {@code outbound.requests} timer tagged by target system, endpoint and status.
+ */
+@Component
+public class OutboundMetrics {
+    public static final String SUPERSET = "superset";
+    public static final String OPENMETADATA = "openmetadata";
+    public static final String REPORTING_DB = "reporting-db";
+    public static final String SUPERSET_DB = "superset-db";
+    public static final String SMTP = "smtp";
+
+    private final MeterRegistry meterRegistry;
+
+    public OutboundMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String system, String endpoint, String method, String status, long durationNanos) {
+        Timer.builder("outbound.requests")
+                .tag("system", system)
+                .tag("endpoint", endpoint)
+                .tag("method", method)
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> T record(String system, String endpoint, Supplier<T> call) {
+        long start = System.nanoTime();
+        String status = "error";
+        try {
+            T result = call.get();
+            status = "ok";
+            return result;
+        } finally {
+            record(system, endpoint, "CALL", status, System.nanoTime() - start);
+        }
+    }
+
+    public MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+}
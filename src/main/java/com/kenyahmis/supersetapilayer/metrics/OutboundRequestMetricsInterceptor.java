@@ -0,0 +1,79 @@
+package com.kenyahmis.supersetapilayer.metrics;
+
+import com.kenyahmis.supersetapilayer.properties.OpenmetadataApiProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.regex.Pattern;
+
+/**
+ * Times every request made through the shared {@code RestClient}. Numeric and UUID path segments are
+ * collapsed to {@code {id}}, and everything after OpenMetadata's {@code /name/} to {@code {fqn}}, so each
+ * endpoint is a single series.
+ */
+public class OutboundRequestMetricsInterceptor implements ClientHttpRequestInterceptor {
+    private static final Pattern ID_SEGMENT = Pattern.compile("/(\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F-]{27})(?=/|$)");
+    // Fully qualified names may themselves contain slashes, so the whole remainder of the path is the name
+    private static final Pattern NAME_SEGMENT = Pattern.compile("/name/.+$");
+
+    private final OutboundMetrics outboundMetrics;
+    private final SupersetApiProperties supersetApiProperties;
+    private final OpenmetadataApiProperties openmetadataApiProperties;
+
+    public OutboundRequestMetricsInterceptor(OutboundMetrics outboundMetrics, SupersetApiProperties supersetApiProperties,
+                                             OpenmetadataApiProperties openmetadataApiProperties) {
+        this.outboundMetrics = outboundMetrics;
+        this.supersetApiProperties = supersetApiProperties;
+        this.openmetadataApiProperties = openmetadataApiProperties;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            outboundMetrics.record(system(request.getURI()), endpoint(request.getURI()), request.getMethod().name(),
+                    status, System.nanoTime() - start);
+        }
+    }
+
+    private String system(URI uri) {
+        String host = uri.getHost();
+        if (host == null) {
+            return "other";
+        }
+        if (matches(host, supersetApiProperties.getBaseUrl())) {
+            return OutboundMetrics.SUPERSET;
+        }
+        if (matches(host, openmetadataApiProperties.getBaseUrl())) {
+            return OutboundMetrics.OPENMETADATA;
+        }
+        return "other";
+    }
+
+    private static boolean matches(String host, String configured) {
+        if (configured == null) {
+            return false;
+        }
+        String configuredHost = configured.contains("://") ? URI.create(configured).getHost() : configured.split("[:/]")[0];
+        return host.equalsIgnoreCase(configuredHost);
+    }
+
+    private static String endpoint(URI uri) {
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        return ID_SEGMENT.matcher(NAME_SEGMENT.matcher(path).replaceFirst("/name/{fqn}")).replaceAll("/{id}");
+    }
+}
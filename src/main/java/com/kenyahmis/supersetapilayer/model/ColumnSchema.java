@@ -0,0 +1,7 @@
+package com.kenyahmis.supersetapilayer.model;
+
+/**
+ * One column of a table snapshot. {@code nullable} is null when the source does not report it.
+ */
+public record ColumnSchema(String name, String dataType, int ordinal, Boolean nullable) {
+}
@@ -0,0 +1,36 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The editable attributes of a Superset dataset column. Read-only attributes such as {@code changed_on} and
+ * {@code type_generic} are left out so the record can be sent back as-is in a dataset update.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record DatasetColumn(Integer id,
+                            @JsonProperty("column_name") String columnName,
+                            String type,
+                            @JsonProperty("verbose_name") String verboseName,
+                            String description,
+                            String expression,
+                            Boolean filterable,
+                            Boolean groupby,
+                            @JsonProperty("is_active") Boolean active,
+                            @JsonProperty("is_dttm") Boolean dttm,
+                            String extra,
+                            @JsonProperty("advanced_data_type") String advancedDataType,
+                            String uuid) {
+
+    /**
+     * Fields requested from {@code /api/v1/dataset/{id}} to fill this record.
+     */
+    public static final String FIELDS = "columns.id,columns.column_name,columns.type,columns.verbose_name,"
+            + "columns.description,columns.expression,columns.filterable,columns.groupby,columns.is_active,"
+            + "columns.is_dttm,columns.extra,columns.advanced_data_type,columns.uuid";
+
+    public DatasetColumn withDescription(String description) {
+        return new DatasetColumn(id, columnName, type, verboseName, description, expression, filterable, groupby,
+                active, dttm, extra, advancedDataType, uuid);
+    }
+}
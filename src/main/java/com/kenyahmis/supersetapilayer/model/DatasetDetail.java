@@ -0,0 +1,9 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.util.List;
+
+/**
+ * The parts of a Superset dataset this service reads: its table name, description and columns.
+ */
+public record DatasetDetail(int id, String tableName, String description, List<DatasetColumn> columns) {
+}
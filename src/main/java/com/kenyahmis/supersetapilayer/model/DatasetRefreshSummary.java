@@ -0,0 +1,11 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param unchanged datasets skipped by a change-aware refresh because their tables did not change
+ */
+public record DatasetRefreshSummary(int total, int unchanged, List<Integer> succeeded, Map<Integer, String> failed,
+                                    long elapsedMillis) {
+}
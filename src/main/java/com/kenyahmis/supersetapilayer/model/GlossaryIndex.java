@@ -0,0 +1,49 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory view of one OpenMetadata glossary: term descriptions keyed by fully qualified name.
+ */
+public class GlossaryIndex {
+    private final String glossaryName;
+    private final Map<String, String> descriptions = new HashMap<>();
+
+    public GlossaryIndex(String glossaryName) {
+        this.glossaryName = glossaryName;
+    }
+
+    public void put(String fullyQualifiedName, String description) {
+        descriptions.put(fullyQualifiedName, description);
+    }
+
+    public String getTableDescription(String tableName) {
+        return descriptions.get(glossaryName + "." + tableName);
+    }
+
+    public String getColumnDescription(String tableName, String columnName) {
+        return descriptions.get(glossaryName + "." + tableName + "." + columnName);
+    }
+
+    /**
+     * Returns the table a term of this glossary describes, or null when the term belongs to another glossary.
+     */
+    public static String getTableName(String glossaryName, String fullyQualifiedName) {
+        String prefix = glossaryName + ".";
+        if (fullyQualifiedName == null || !fullyQualifiedName.startsWith(prefix)) {
+            return null;
+        }
+        String term = fullyQualifiedName.substring(prefix.length());
+        int columnSeparator = term.indexOf('.');
+        return columnSeparator < 0 ? term : term.substring(0, columnSeparator);
+    }
+
+    public String getGlossaryName() {
+        return glossaryName;
+    }
+
+    public int size() {
+        return descriptions.size();
+    }
+}
@@ -0,0 +1,164 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Job implements JobProgress {
+    private static final int MAX_RECORDED_FAILURES = 100;
+
+    private final String id;
+    private final String operation;
+    private final Instant submittedAt = Instant.now();
+    private final AtomicLong total = new AtomicLong(-1);
+    private final AtomicLong done = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<String> failures = new ArrayList<>();
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Object result;
+    private volatile String error;
+
+    public Job(String id, String operation) {
+        this.id = id;
+        this.operation = operation;
+    }
+
+    @Override
+    public void setTotal(long total) {
+        this.total.set(total);
+    }
+
+    @Override
+    public void itemDone() {
+        done.incrementAndGet();
+    }
+
+    @Override
+    public void itemFailed(String item, String reason) {
+        failed.incrementAndGet();
+        synchronized (failures) {
+            if (failures.size() < MAX_RECORDED_FAILURES) {
+                failures.add(item + ": " + reason);
+            }
+        }
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    /**
+     * Moves a queued job to RUNNING. Returns false if the job was cancelled before a worker got to it, in which
+     * case the worker must not run it.
+     */
+    public synchronized boolean start() {
+        if (status != JobStatus.QUEUED) {
+            return false;
+        }
+        startedAt = Instant.now();
+        status = JobStatus.RUNNING;
+        return true;
+    }
+
+    /**
+     * Finishes the job as CANCELLED if no worker has started it yet.
+     */
+    public synchronized boolean cancelIfQueued() {
+        if (status != JobStatus.QUEUED) {
+            return false;
+        }
+        finish(JobStatus.CANCELLED, null, null);
+        return true;
+    }
+
+    public synchronized void finish(JobStatus status, Object result, String error) {
+        this.result = result;
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = status;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public long getDone() {
+        return done.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public List<String> getFailures() {
+        synchronized (failures) {
+            return List.copyOf(failures);
+        }
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Long getElapsedMillis() {
+        Instant start = startedAt;
+        if (start == null) {
+            return null;
+        }
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        return Duration.between(start, end).toMillis();
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+}
@@ -0,0 +1,22 @@
+package com.kenyahmis.supersetapilayer.model;
+
+/**
+ * Progress callbacks a long-running operation reports through, and the cancellation flag it should poll.
+ */
+public interface JobProgress {
+    JobProgress NONE = new JobProgress() {
+    };
+
+    default void setTotal(long total) {
+    }
+
+    default void itemDone() {
+    }
+
+    default void itemFailed(String item, String reason) {
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+}
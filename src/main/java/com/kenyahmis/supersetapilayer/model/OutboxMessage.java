@@ -0,0 +1,18 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.time.Instant;
+
+/**
+ * An email waiting in the outbox, with its delivery attempts so far.
+ */
+public record OutboxMessage(String id, String from, String to, String subject, String text, Instant createdAt,
+                            int attempts, Instant nextAttemptAt, String lastError) {
+
+    public OutboxMessage failed(String error, Instant nextAttemptAt) {
+        return new OutboxMessage(id, from, to, subject, text, createdAt, attempts + 1, nextAttemptAt, error);
+    }
+
+    public OutboxMessage withRecipients(String id, String to) {
+        return new OutboxMessage(id, from, to, subject, text, createdAt, attempts, nextAttemptAt, lastError);
+    }
+}
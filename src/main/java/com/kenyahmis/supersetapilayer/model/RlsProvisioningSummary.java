@@ -0,0 +1,11 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.util.List;
+
+/**
+ * @param failed rules whose create, update or delete Superset rejected
+ * @param unknownRoles configured roles that do not exist in Superset and were left out of their rules
+ */
+public record RlsProvisioningSummary(int created, int updated, int deleted, int unchanged, int failed,
+                                     List<String> unknownRoles, long elapsedMillis) {
+}
@@ -0,0 +1,18 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.util.Set;
+
+/**
+ * A Superset row level security rule, either as configured or as read back from Superset.
+ *
+ * @param id the Superset id, null for rules not created yet
+ * @param tables dataset ids the rule applies to
+ * @param roles role ids the rule applies to
+ */
+public record RlsRule(Integer id, String name, String description, String filterType, Set<Integer> tables,
+                      Set<Integer> roles, String clause, String groupKey) {
+
+    public RlsRule withId(Integer id) {
+        return new RlsRule(id, name, description, filterType, tables, roles, clause, groupKey);
+    }
+}
@@ -0,0 +1,21 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.util.List;
+
+/**
+ * Differences between a source schema (the reporting database) and a target schema it is compared against.
+ */
+public record SchemaDiff(List<String> addedTables, List<String> removedTables, List<TableDiff> changedTables) {
+
+    public boolean isEmpty() {
+        return addedTables.isEmpty() && removedTables.isEmpty() && changedTables.isEmpty();
+    }
+
+    public record TableDiff(String table, List<String> addedColumns, List<String> removedColumns,
+                            List<ColumnChange> changedColumns) {
+    }
+
+    public record ColumnChange(String column, String previousType, String currentType, Boolean previousNullable,
+                               Boolean currentNullable) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tables and their columns, keyed by name, as read from the reporting database or from Superset. Column and
+ * type names are dictionary-encoded so the many repeated names across tables share one instance.
+ */
+public class SchemaSnapshot {
+    private final Map<String, Map<String, ColumnSchema>> tables = new LinkedHashMap<>();
+    private final Map<String, String> dictionary = new HashMap<>();
+
+    public void addTable(String tableName) {
+        tables.computeIfAbsent(tableName, name -> new LinkedHashMap<>());
+    }
+
+    public void addColumn(String tableName, ColumnSchema column) {
+        ColumnSchema encoded = new ColumnSchema(encode(column.name()), encode(column.dataType()), column.ordinal(),
+                column.nullable());
+        tables.computeIfAbsent(tableName, name -> new LinkedHashMap<>()).put(encoded.name(), encoded);
+    }
+
+    public boolean containsTable(String tableName) {
+        return tables.containsKey(tableName);
+    }
+
+    public Set<String> getTableNames() {
+        return Collections.unmodifiableSet(tables.keySet());
+    }
+
+    public Map<String, ColumnSchema> getColumns(String tableName) {
+        Map<String, ColumnSchema> columns = tables.get(tableName);
+        return columns == null ? Map.of() : Collections.unmodifiableMap(columns);
+    }
+
+    public int getTableCount() {
+        return tables.size();
+    }
+
+    public int getColumnCount() {
+        return tables.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private String encode(String value) {
+        return value == null ? null : dictionary.computeIfAbsent(value, key -> key);
+    }
+}
@@ -0,0 +1,6 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.time.Instant;
+
+public record SnapshotInfo(String id, Instant takenAt, long sizeBytes) {
+}
@@ -0,0 +1,24 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.time.Instant;
+
+/**
+ * When a reporting table last changed, by DDL or by writes, and how many rows it held at that point.
+ * Also stored as the per-dataset watermark of the last successful refresh.
+ */
+public record TableActivity(String schemaName, String tableName, Instant lastModified, long rowCount) {
+
+    /**
+     * The key reporting tables are matched to Superset datasets by, since table names repeat across schemas.
+     */
+    public static String qualifiedName(String schemaName, String tableName) {
+        return schemaName + "." + tableName;
+    }
+
+    public boolean isChangedSince(TableActivity watermark) {
+        if (watermark == null || rowCount != watermark.rowCount()) {
+            return true;
+        }
+        return lastModified != null && (watermark.lastModified() == null || lastModified.isAfter(watermark.lastModified()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.kenyahmis.supersetapilayer.model;
+
+/**
+ * Outcome of an operation on one target of a multi-target run.
+ */
+public record TargetResult(String target, TargetStatus status, Object result, String error, long elapsedMillis) {
+
+    public enum TargetStatus {
+        SUCCEEDED, FAILED, CANCELLED
+    }
+}
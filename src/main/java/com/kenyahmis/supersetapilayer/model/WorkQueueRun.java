@@ -0,0 +1,11 @@
+package com.kenyahmis.supersetapilayer.model;
+
+import java.time.Instant;
+
+public record WorkQueueRun(String id, String operation, RunStatus status, int total, int done, int failed,
+                           Instant createdAt, Instant finishedAt) {
+
+    public enum RunStatus {
+        RUNNING, COMPLETED
+    }
+}
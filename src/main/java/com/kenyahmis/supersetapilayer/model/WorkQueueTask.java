@@ -0,0 +1,9 @@
+package com.kenyahmis.supersetapilayer.model;
+
+/**
+ * A per-dataset task claimed from the work queue.
+ *
+ * @param attempts claims so far, including this one
+ */
+public record WorkQueueTask(long id, String runId, String operation, int datasetId, int attempts) {
+}
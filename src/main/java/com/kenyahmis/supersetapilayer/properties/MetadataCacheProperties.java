@@ -0,0 +1,50 @@
+package com.kenyahmis.supersetapilayer.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "metadata.cache")
+public class MetadataCacheProperties {
+    private boolean enabled = true;
+    private int maxEntries = 20000;
+    private Duration freshFor = Duration.ofSeconds(30);
+    private Duration expireAfter = Duration.ofHours(24);
+
+    public MetadataCacheProperties() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getFreshFor() {
+        return freshFor;
+    }
+
+    public void setFreshFor(Duration freshFor) {
+        this.freshFor = freshFor;
+    }
+
+    public Duration getExpireAfter() {
+        return expireAfter;
+    }
+
+    public void setExpireAfter(Duration expireAfter) {
+        this.expireAfter = expireAfter;
+    }
+}
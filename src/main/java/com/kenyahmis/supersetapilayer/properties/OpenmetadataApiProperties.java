@@ -3,11 +3,17 @@ package com.kenyahmis.supersetapilayer.properties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "openmetadata.api")
 public class OpenmetadataApiProperties {
     private String jwtToken;
     private String baseUrl;
+    private String glossaryName = "National Datawarehouse Data Dictionary";
+    private int glossaryPageSize = 1000;
+    private Duration eventsMaxAge = Duration.ofDays(7);
+    private final HttpClientProperties http = new HttpClientProperties();
 
     public OpenmetadataApiProperties() {
     }
@@ -27,4 +33,32 @@ public class OpenmetadataApiProperties {
     public void setBaseUrl(String baseUrl) {
         this.baseUrl = baseUrl;
     }
+
+    public String getGlossaryName() {
+        return glossaryName;
+    }
+
+    public void setGlossaryName(String glossaryName) {
+        this.glossaryName = glossaryName;
+    }
+
+    public int getGlossaryPageSize() {
+        return glossaryPageSize;
+    }
+
+    public void setGlossaryPageSize(int glossaryPageSize) {
+        this.glossaryPageSize = glossaryPageSize;
+    }
+
+    public Duration getEventsMaxAge() {
+        return eventsMaxAge;
+    }
+
+    public void setEventsMaxAge(Duration eventsMaxAge) {
+        this.eventsMaxAge = eventsMaxAge;
+    }
+
+    public HttpClientProperties getHttp() {
+        return http;
+    }
 }
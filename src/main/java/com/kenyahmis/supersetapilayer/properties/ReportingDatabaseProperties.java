@@ -10,6 +10,8 @@ public class ReportingDatabaseProperties {
     private String password;
     private String host;
     private String database;
+    private final ConnectionPoolProperties pool = new ConnectionPoolProperties();
+    private int statementCacheSize = 100;
 
     public ReportingDatabaseProperties() {
     }
@@ -45,4 +47,16 @@ public class ReportingDatabaseProperties {
     public void setDatabase(String database) {
         this.database = database;
     }
+
+    public ConnectionPoolProperties getPool() {
+        return pool;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
 }
@@ -0,0 +1,51 @@
+package com.kenyahmis.supersetapilayer.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "rls")
+public class RlsProperties {
+    private boolean enabled = false;
+    private String namePrefix = "api-layer:";
+    private int pageSize = 100;
+    private List<RlsRuleProperties> rules = new ArrayList<>();
+
+    public RlsProperties() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public List<RlsRuleProperties> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<RlsRuleProperties> rules) {
+        this.rules = rules;
+    }
+}
@@ -0,0 +1,77 @@
+package com.kenyahmis.supersetapilayer.properties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One row level security rule to maintain in Superset: a clause applied to the given roles on every dataset
+ * whose table name matches {@code tables}.
+ */
+public class RlsRuleProperties {
+    private String name;
+    private String description;
+    private String filterType = "Regular";
+    private String tables = ".*";
+    private List<String> roles = new ArrayList<>();
+    private String clause;
+    private String groupKey;
+
+    public RlsRuleProperties() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getFilterType() {
+        return filterType;
+    }
+
+    public void setFilterType(String filterType) {
+        this.filterType = filterType;
+    }
+
+    public String getTables() {
+        return tables;
+    }
+
+    public void setTables(String tables) {
+        this.tables = tables;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+    }
+
+    public String getClause() {
+        return clause;
+    }
+
+    public void setClause(String clause) {
+        this.clause = clause;
+    }
+
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    public void setGroupKey(String groupKey) {
+        this.groupKey = groupKey;
+    }
+}
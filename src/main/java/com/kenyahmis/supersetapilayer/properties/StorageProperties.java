@@ -0,0 +1,32 @@
+package com.kenyahmis.supersetapilayer.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+    private String dataDir = "data";
+    private Duration snapshotRetention = Duration.ofDays(90);
+
+    public StorageProperties() {
+    }
+
+    public String getDataDir() {
+        return dataDir;
+    }
+
+    public void setDataDir(String dataDir) {
+        this.dataDir = dataDir;
+    }
+
+    public Duration getSnapshotRetention() {
+        return snapshotRetention;
+    }
+
+    public void setSnapshotRetention(Duration snapshotRetention) {
+        this.snapshotRetention = snapshotRetention;
+    }
+}
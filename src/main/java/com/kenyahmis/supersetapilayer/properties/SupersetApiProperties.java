@@ -3,6 +3,8 @@ package com.kenyahmis.supersetapilayer.properties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "superset.api")
 public class SupersetApiProperties {
@@ -11,6 +13,16 @@ public class SupersetApiProperties {
     private String username;
     private String password;
     private String baseUrl;
+    private Duration tokenRefreshAhead = Duration.ofSeconds(60);
+    private int refreshMaxConcurrency = 8;
+    private int refreshInitialConcurrency = 2;
+    private Duration refreshLatencyThreshold = Duration.ofSeconds(60);
+    private int datasetPageSize = 100;
+    private int reportingDatabaseId = 2;
+    private int importChunkSize = 100;
+    private int datasetOwnerId = 1;
+    private String changeLogSubject = "Self-service Change log";
+    private final HttpClientProperties http = new HttpClientProperties();
 
     public SupersetApiProperties() {
     }
@@ -54,4 +66,80 @@ public class SupersetApiProperties {
     public void setBaseUrl(String baseUrl) {
         this.baseUrl = baseUrl;
     }
+
+    public Duration getTokenRefreshAhead() {
+        return tokenRefreshAhead;
+    }
+
+    public void setTokenRefreshAhead(Duration tokenRefreshAhead) {
+        this.tokenRefreshAhead = tokenRefreshAhead;
+    }
+
+    public int getRefreshMaxConcurrency() {
+        return refreshMaxConcurrency;
+    }
+
+    public void setRefreshMaxConcurrency(int refreshMaxConcurrency) {
+        this.refreshMaxConcurrency = refreshMaxConcurrency;
+    }
+
+    public int getRefreshInitialConcurrency() {
+        return refreshInitialConcurrency;
+    }
+
+    public void setRefreshInitialConcurrency(int refreshInitialConcurrency) {
+        this.refreshInitialConcurrency = refreshInitialConcurrency;
+    }
+
+    public Duration getRefreshLatencyThreshold() {
+        return refreshLatencyThreshold;
+    }
+
+    public void setRefreshLatencyThreshold(Duration refreshLatencyThreshold) {
+        this.refreshLatencyThreshold = refreshLatencyThreshold;
+    }
+
+    public int getDatasetPageSize() {
+        return datasetPageSize;
+    }
+
+    public void setDatasetPageSize(int datasetPageSize) {
+        this.datasetPageSize = datasetPageSize;
+    }
+
+    public int getReportingDatabaseId() {
+        return reportingDatabaseId;
+    }
+
+    public void setReportingDatabaseId(int reportingDatabaseId) {
+        this.reportingDatabaseId = reportingDatabaseId;
+    }
+
+    public int getImportChunkSize() {
+        return importChunkSize;
+    }
+
+    public void setImportChunkSize(int importChunkSize) {
+        this.importChunkSize = importChunkSize;
+    }
+
+    public int getDatasetOwnerId() {
+        return datasetOwnerId;
+    }
+
+    public void setDatasetOwnerId(int datasetOwnerId) {
+        this.datasetOwnerId = datasetOwnerId;
+    }
+
+    public String getChangeLogSubject() {
+        return changeLogSubject;
+    }
+
+    public void setChangeLogSubject(String changeLogSubject) {
+        this.changeLogSubject = changeLogSubject;
+    }
+
+    public HttpClientProperties getHttp() {
+        return http;
+    }
 }
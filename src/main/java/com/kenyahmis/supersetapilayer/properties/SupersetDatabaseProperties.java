@@ -9,7 +9,10 @@ public class SupersetDatabaseProperties {
     private String username;
     private String password;
     private String host;
+    private int port = 5432;
     private String database;
+    private MetadataSource metadataSource = MetadataSource.API;
+    private final ConnectionPoolProperties pool = new ConnectionPoolProperties();
 
     public SupersetDatabaseProperties() {
     }
@@ -38,6 +41,14 @@ public class SupersetDatabaseProperties {
         this.host = host;
     }
 
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
     public String getDatabase() {
         return database;
     }
@@ -45,4 +56,24 @@ public class SupersetDatabaseProperties {
     public void setDatabase(String database) {
         this.database = database;
     }
+
+    public MetadataSource getMetadataSource() {
+        return metadataSource;
+    }
+
+    public void setMetadataSource(MetadataSource metadataSource) {
+        this.metadataSource = metadataSource;
+    }
+
+    public ConnectionPoolProperties getPool() {
+        return pool;
+    }
+
+    /**
+     * Where dataset and column definitions are read from for changelog generation and new-dataset detection.
+     */
+    public enum MetadataSource {
+        API,
+        DATABASE
+    }
 }
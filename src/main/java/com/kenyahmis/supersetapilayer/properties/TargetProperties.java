@@ -0,0 +1,39 @@
+package com.kenyahmis.supersetapilayer.properties;
+
+/**
+ * One named Superset instance with the OpenMetadata glossary and reporting database it is fed from.
+ */
+public class TargetProperties {
+    private String name;
+    private final SupersetApiProperties superset = new SupersetApiProperties();
+    private final OpenmetadataApiProperties openmetadata = new OpenmetadataApiProperties();
+    private final ReportingDatabaseProperties reporting = new ReportingDatabaseProperties();
+    private final SupersetDatabaseProperties supersetDb = new SupersetDatabaseProperties();
+
+    public TargetProperties() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public SupersetApiProperties getSuperset() {
+        return superset;
+    }
+
+    public OpenmetadataApiProperties getOpenmetadata() {
+        return openmetadata;
+    }
+
+    public ReportingDatabaseProperties getReporting() {
+        return reporting;
+    }
+
+    public SupersetDatabaseProperties getSupersetDb() {
+        return supersetDb;
+    }
+}
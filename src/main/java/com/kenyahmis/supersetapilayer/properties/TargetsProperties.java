@@ -0,0 +1,33 @@
+package com.kenyahmis.supersetapilayer.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "targets")
+public class TargetsProperties {
+    private List<TargetProperties> instances = new ArrayList<>();
+    private int maxConcurrent = 4;
+
+    public TargetsProperties() {
+    }
+
+    public List<TargetProperties> getInstances() {
+        return instances;
+    }
+
+    public void setInstances(List<TargetProperties> instances) {
+        this.instances = instances;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+}
@@ -1,341 +1,603 @@
 package com.kenyahmis.supersetapilayer.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.kenyahmis.supersetapilayer.concurrency.AdaptiveConcurrencyLimiter;
+import com.kenyahmis.supersetapilayer.model.ColumnSchema;
+import com.kenyahmis.supersetapilayer.model.DatasetColumn;
+import com.kenyahmis.supersetapilayer.model.DatasetDetail;
+import com.kenyahmis.supersetapilayer.model.DatasetRefreshSummary;
+import com.kenyahmis.supersetapilayer.model.GlossaryIndex;
+import com.kenyahmis.supersetapilayer.model.JobProgress;
+import com.kenyahmis.supersetapilayer.model.RlsProvisioningSummary;
+import com.kenyahmis.supersetapilayer.model.SchemaDiff;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import com.kenyahmis.supersetapilayer.model.SnapshotInfo;
+import com.kenyahmis.supersetapilayer.model.TableActivity;
 import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
-import com.kenyahmis.supersetapilayer.properties.OpenmetadataApiProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetDatabaseProperties;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class APIService {
     private final RestClient defaultClient;
     private final SupersetApiProperties supersetApiProperties;
-    private final OpenmetadataApiProperties openmetadataApiProperties;
     private final MailProperties mailProperties;
-    private final JdbcTemplate mssqlJdbcTemplate;
+    private final ReportingSchemaLoader reportingSchemaLoader;
+    private final SupersetMetadataReader supersetMetadataReader;
+    private final SupersetDatabaseProperties supersetDatabaseProperties;
+    private final SchemaDiffEngine schemaDiffEngine;
+    private final SchemaSnapshotStore schemaSnapshotStore;
     private final EmailService emailService;
-    private final static int DEFAULT_PAGE = 0;
-    private final static int DEFAULT_PAGE_SIZE = 200;
+    private final SupersetTokenManager supersetTokenManager;
+    private final GlossaryService glossaryService;
+    private final LocalStateStore localStateStore;
+    private final DatasetImportService datasetImportService;
+    private final SupersetDatasetReader supersetDatasetReader;
+    private final RlsProvisioningService rlsProvisioningService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService refreshExecutor;
+    private final ExecutorService prefetchExecutor;
+    private final static String REFRESH_WATERMARKS = "refresh-watermarks";
+    private final static String GLOSSARY_EVENTS_CURSOR = "glossary-events-cursor";
+    private final static String DESCRIPTION_RETRY = "description-retry";
+    private final static Duration GLOSSARY_EVENTS_OVERLAP = Duration.ofMinutes(1);
+    private final static Set<String> DATASET_EXCLUSIONS = Set.of("QueryBuilders", "QueryTransformers", "sysdiagrams", "AggregateConcordanceTemp");
     private final Logger LOG = LoggerFactory.getLogger(APIService.class);
 
     public APIService(RestClient defaultClient, SupersetApiProperties supersetApiProperties,
-                      OpenmetadataApiProperties openmetadataApiProperties, MailProperties mailProperties, EmailService emailService,
-                      JdbcTemplate mssqlJdbcTemplate) {
+                      MailProperties mailProperties, EmailService emailService,
+                      ReportingSchemaLoader reportingSchemaLoader, SupersetTokenManager supersetTokenManager,
+                      GlossaryService glossaryService, LocalStateStore localStateStore,
+                      SupersetMetadataReader supersetMetadataReader, SupersetDatabaseProperties supersetDatabaseProperties,
+                      SchemaDiffEngine schemaDiffEngine, SchemaSnapshotStore schemaSnapshotStore,
+                      DatasetImportService datasetImportService, SupersetDatasetReader supersetDatasetReader,
+                      RlsProvisioningService rlsProvisioningService, ObjectMapper objectMapper) {
         this.defaultClient = defaultClient;
         this.supersetApiProperties = supersetApiProperties;
-        this.openmetadataApiProperties = openmetadataApiProperties;
         this.mailProperties = mailProperties;
-        this.mssqlJdbcTemplate = mssqlJdbcTemplate;
+        this.reportingSchemaLoader = reportingSchemaLoader;
         this.emailService = emailService;
+        this.supersetTokenManager = supersetTokenManager;
+        this.glossaryService = glossaryService;
+        this.localStateStore = localStateStore;
+        this.supersetMetadataReader = supersetMetadataReader;
+        this.supersetDatabaseProperties = supersetDatabaseProperties;
+        this.schemaDiffEngine = schemaDiffEngine;
+        this.schemaSnapshotStore = schemaSnapshotStore;
+        this.datasetImportService = datasetImportService;
+        this.supersetDatasetReader = supersetDatasetReader;
+        this.rlsProvisioningService = rlsProvisioningService;
+        this.objectMapper = objectMapper;
+        this.refreshExecutor = Executors.newFixedThreadPool(supersetApiProperties.getRefreshMaxConcurrency());
+        this.prefetchExecutor = Executors.newCachedThreadPool();
     }
 
-    public void refreshDatasets() {
-        Iterator<JsonNode> datasets =  getDatasetIds();
-        if (datasets == null) {
-            LOG.info("No datasets found");
-            return;
+    /**
+     * Refreshes Superset datasets. When {@code changedOnly} is set, only datasets of the reporting database whose
+     * reporting table changed since the dataset's last successful refresh are refreshed, largest table first.
+     */
+    public DatasetRefreshSummary refreshDatasets(boolean changedOnly, JobProgress progress) {
+        if (changedOnly) {
+            try {
+                return refreshChangedDatasets(progress);
+            } catch (DataAccessException e) {
+                LOG.warn("Could not read table activity from the reporting database, refreshing every dataset", e);
+            }
         }
-        final String host = supersetApiProperties.getBaseUrl();
-        final String accessToken = getAccessToken();
+        Iterator<JsonNode> datasets =  getSupersetDatasetPages("id");
+        List<Integer> ids = new ArrayList<>();
         while (datasets.hasNext()) {
-            Integer id = datasets.next().intValue();
+            int id = datasets.next().get("id").intValue();
             if (id > 0) {
-                String uri  = String.format("%s/api/v1/dataset/%d/refresh", host, id);
-                try {
-                    ResponseEntity<JsonNode> response =  defaultClient.put()
-                            .uri(uri)
-                            .header("Authorization","Bearer " + accessToken)
-                            .retrieve()
-                            .toEntity(JsonNode.class);
-                    if(response.getStatusCode().is2xxSuccessful()) {
-                        LOG.info("Refreshed datasets {}", id);
-                    }
-                } catch (HttpClientErrorException he) {
-                    he.getResponseBodyAs(String.class);
-                    LOG.error("Failed to updated dataset {} with message {}", id, he.getResponseBodyAs(String.class), he );
-                }
+                ids.add(id);
             }
         }
-    }
-
-    public void populateDescriptions() {
-        Iterator<JsonNode> datasets =  getDatasetIds();
-        if (datasets == null) {
+        if (ids.isEmpty()) {
             LOG.info("No datasets found");
-            return;
         }
-        final String omHost = openmetadataApiProperties.getBaseUrl();
-        final String jwtToken = openmetadataApiProperties.getJwtToken();
-        while (datasets.hasNext()) {
-            Integer id = datasets.next().intValue();
-
-            JsonNode datasetInfo = getColumnsAll(id);
-            String tableName = datasetInfo.get("table_name").textValue();
-            Iterator<JsonNode> columns = datasetInfo.get("columns").iterator();
-            List<JsonNode> newColumns = new ArrayList<>();
-            String tableDescription = null;
-            String tableGlossaryUri = String.format("https://%s/api/v1/glossaryTerms/name/National Datawarehouse Data Dictionary.%s", omHost, tableName);
-            try {
-                ResponseEntity<JsonNode> response =  defaultClient.get()
-                        .uri(tableGlossaryUri)
-                        .header("Authorization","Bearer " + jwtToken)
-                        .retrieve()
-                        .toEntity(JsonNode.class);
+        return refreshDatasets(ids, 0, progress);
+    }
 
-                if(response.getStatusCode().is2xxSuccessful()) {
-                    JsonNode glossaryTerm = response.getBody();
-                    assert glossaryTerm != null;
-                    tableDescription = glossaryTerm.get("description").textValue();
-                }
-            } catch (HttpClientErrorException he) {
-                if (he.getStatusCode().is4xxClientError()) {
-                    // Log a message for 404 and skip the loop iteration
-                    LOG.warn("Glossary term not found for URI: {}", tableGlossaryUri);
-                } else {
-                    LOG.error("Failed to updated dataset with message {}", he.getResponseBodyAs(String.class), he);
-                }
+    private DatasetRefreshSummary refreshChangedDatasets(JobProgress progress) {
+        Map<String, TableActivity> activity = reportingSchemaLoader.loadTableActivity();
+        Map<String, TableActivity> watermarks = new HashMap<>(
+                localStateStore.read(REFRESH_WATERMARKS, new TypeReference<Map<String, TableActivity>>() {}, HashMap::new));
+        // Datasets of other databases may share a table name with a reporting table, so they are left out
+        Iterator<JsonNode> datasets = getSupersetDatasetPages("id,schema,table_name", reportingDatabaseFilter());
+        Map<Integer, TableActivity> changed = new HashMap<>();
+        List<Integer> unmapped = new ArrayList<>();
+        int unchanged = 0;
+        while (datasets.hasNext()) {
+            JsonNode dataset = datasets.next();
+            int id = dataset.get("id").intValue();
+            TableActivity table = activity.get(TableActivity.qualifiedName(dataset.path("schema").textValue(),
+                    dataset.path("table_name").textValue()));
+            if (id <= 0) {
+                continue;
             }
+            if (table == null) {
+                // Virtual datasets and datasets without a schema carry no change signal
+                unmapped.add(id);
+            } else if (table.isChangedSince(watermarks.get(String.valueOf(id)))) {
+                changed.put(id, table);
+            } else {
+                unchanged++;
+            }
+        }
+        List<Integer> ids = new ArrayList<>(changed.keySet());
+        ids.sort(Comparator.comparingLong((Integer id) -> changed.get(id).rowCount()).reversed());
+        ids.addAll(unmapped);
+        LOG.info("{} datasets changed, {} without a reporting table, {} unchanged", changed.size(), unmapped.size(),
+                unchanged);
+        DatasetRefreshSummary summary = refreshDatasets(ids, unchanged, progress);
+        for (Integer id : summary.succeeded()) {
+            TableActivity table = changed.get(id);
+            if (table != null) {
+                watermarks.put(String.valueOf(id), table);
+            }
+        }
+        localStateStore.write(REFRESH_WATERMARKS, watermarks);
+        return summary;
+    }
 
-            if (tableDescription != null) {
-                while (columns.hasNext()) {
-                    JsonNode column = columns.next();
-                    String columnGlossaryUri = String.format("https://%s/api/v1/glossaryTerms/name/National Datawarehouse Data Dictionary.%s.%s", omHost, tableName, column.get("column_name").textValue());
-                    LOG.info("Accessing glossary URI: {}", columnGlossaryUri);
-                    try {
-                        ResponseEntity<JsonNode> response = defaultClient.get()
-                                .uri(columnGlossaryUri)
-                                .header("Authorization", "Bearer " + jwtToken)
-                                .retrieve()
-                                .toEntity(JsonNode.class);
-
-                        if (response.getStatusCode().is2xxSuccessful()) {
-                            JsonNode dataset = response.getBody();
-                            assert dataset != null;
-                            ((ObjectNode) column).put("description", dataset.get("description"));
-                            // Remove unwanted columns
-                            newColumns.add(formatColumnNode(column, "changed_on", "created_on", "type_generic", "python_date_format"));
-                            LOG.info("Updated Column {}.{}", tableName, column.get("column_name").textValue());
-                        }
-                    } catch (HttpClientErrorException he) {
-                        if (he.getStatusCode().is4xxClientError()) {
-                            // Log a message for 404 and skip the loop iteration
-                            LOG.warn("Glossary term not found for URI: {}", columnGlossaryUri);
-                        } else {
-                            LOG.error("Failed to updated dataset with message {}", he.getResponseBodyAs(String.class), he);
-                        }
-                    }
+    private DatasetRefreshSummary refreshDatasets(List<Integer> ids, int unchanged, JobProgress progress) {
+        final long start = System.nanoTime();
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                supersetApiProperties.getRefreshInitialConcurrency(), 1,
+                supersetApiProperties.getRefreshMaxConcurrency(), supersetApiProperties.getRefreshLatencyThreshold());
+        final Queue<Integer> succeeded = new ConcurrentLinkedQueue<>();
+        final Map<Integer, String> failed = new ConcurrentHashMap<>();
+        List<Future<?>> pending = new ArrayList<>(ids.size());
+        progress.setTotal(ids.size());
+        try {
+            for (Integer id : ids) {
+                if (progress.isCancelled()) {
+                    LOG.info("Dataset refresh cancelled after submitting {} of {} datasets", pending.size(), ids.size());
+                    break;
                 }
-                // update the table & column definitions
-                updateColumnDescriptions(newColumns, tableDescription, id);
+                limiter.acquire();
+                pending.add(refreshExecutor.submit(() -> refreshDataset(id, limiter, succeeded, failed, progress)));
             }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.forEach(future -> future.cancel(true));
+            LOG.warn("Dataset refresh interrupted after {} of {} datasets", succeeded.size() + failed.size(), ids.size());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Dataset refresh task failed", e.getCause());
         }
-    }
-    public void addNewDatasets() {
-      getNewDatasets().forEach(this::addDataset);
-        // TODO implement RLS
-    }
-    private List<String> getNewDatasets() {
-        List<String> exclusions = List.of("QueryBuilders", "QueryTransformers", "sysdiagrams", "AggregateConcordanceTemp");
-        List<String> newDatasets = getTargetSymmetricDifference(getReportingDbTableNames(), getSupersetDatasetNames())
-                .stream().filter(e -> !exclusions.contains(e)).toList();
-        LOG.info("Found {} new datasets", newDatasets.size());
-        return newDatasets;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        DatasetRefreshSummary summary = new DatasetRefreshSummary(ids.size(), unchanged, List.copyOf(succeeded), Map.copyOf(failed),
+                elapsedMillis);
+        LOG.info("Refreshed {} of {} datasets in {} ms, {} failed, final concurrency {}", summary.succeeded().size(),
+                ids.size(), elapsedMillis, failed.size(), limiter.getLimit());
+        return summary;
     }
 
-    private String getAccessToken() {
-        Map<String, String> requestBody = new HashMap<>();
-        requestBody.put("password", supersetApiProperties.getPassword());
-        requestBody.put("provider", supersetApiProperties.getProvider());
-        requestBody.put("refresh", supersetApiProperties.getRefresh());
-        requestBody.put("username", supersetApiProperties.getUsername());
-        String baseUrl = supersetApiProperties.getBaseUrl();
+    private void refreshDataset(Integer id, AdaptiveConcurrencyLimiter limiter, Queue<Integer> succeeded,
+                                Map<Integer, String> failed, JobProgress progress) {
+        long start = System.nanoTime();
+        try {
+            refreshDataset(id);
+            limiter.onSuccess(System.nanoTime() - start);
+            succeeded.add(id);
+            progress.itemDone();
+        } catch (HttpStatusCodeException he) {
+            if (he.getStatusCode().value() == 429 || he.getStatusCode().is5xxServerError()) {
+                limiter.onOverload();
+            } else {
+                limiter.onIgnored();
+            }
+            failed.put(id, he.getStatusCode() + " " + he.getResponseBodyAsString());
+            progress.itemFailed(id.toString(), failed.get(id));
+            LOG.error("Failed to updated dataset {} with message {}", id, he.getResponseBodyAsString(), he);
+        } catch (ResourceAccessException re) {
+            limiter.onOverload();
+            failed.put(id, String.valueOf(re.getMessage()));
+            progress.itemFailed(id.toString(), failed.get(id));
+            LOG.error("Failed to reach Superset while refreshing dataset {}", id, re);
+        } catch (RuntimeException e) {
+            limiter.onIgnored();
+            failed.put(id, String.valueOf(e.getMessage()));
+            progress.itemFailed(id.toString(), failed.get(id));
+            LOG.error("Failed to refresh dataset {}", id, e);
+        }
+    }
 
-        String uri = String.format("%s/api/v1/security/login", baseUrl);
-        ResponseEntity<JsonNode> response =  defaultClient.post()
+    /**
+     * Refreshes a single dataset, throwing on failure. Used by work queue tasks.
+     */
+    public void refreshDataset(int id) {
+        final String host = supersetApiProperties.getBaseUrl();
+        String uri  = String.format("%s/api/v1/dataset/%d/refresh", host, id);
+        supersetTokenManager.withAccessToken(token -> defaultClient.put()
                 .uri(uri)
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(requestBody)
+                .header("Authorization","Bearer " + token)
                 .retrieve()
-                .toEntity(JsonNode.class);
-        JsonNode node = response.getBody();
-        String token = null;
-        if (node != null) {
-            token = node.get("access_token").textValue();
-        }
-        return token;
+                .toBodilessEntity());
+        supersetDatasetReader.invalidate(id);
+        LOG.info("Refreshed datasets {}", id);
     }
 
-    private List<String> getTargetSymmetricDifference(List<String> source, List<String> target) {
-        return source.stream().filter(element -> !target.contains(element)).toList();
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+        prefetchExecutor.shutdownNow();
     }
 
-    private List<String> getReportingDbTableNames() {
-        String fetchReportingTablesQuery = """
-                USE REPORTING;
-                BEGIN
-                SELECT [name]
-                FROM sys.tables;
-                END
-                """;
-        List<String> tablesList = mssqlJdbcTemplate.queryForList(fetchReportingTablesQuery, String.class);
-        LOG.info("Fetched {} tables from reporting database", tablesList.size());
-        return tablesList;
-    }
-    private Map<String, List<String>> getReportingDbColumnNames(List<String> tableNames) {
-        Map<String, List<String>> columnsMap = new HashMap<>();
-        String fetchReportingColumnNames = """
-                SELECT COLUMN_NAME
-                FROM INFORMATION_SCHEMA.COLUMNS
-                WHERE TABLE_NAME = N'%s'
-                """;
-        tableNames.forEach(tableName -> {
-            List<String> coumnList = mssqlJdbcTemplate.queryForList(String.format(fetchReportingColumnNames, tableName), String.class);
-            columnsMap.put(tableName, coumnList);
-        });
-        return columnsMap;
+    /**
+     * Copies glossary descriptions onto Superset datasets. In incremental mode only datasets whose glossary terms
+     * changed since the last sync, according to OpenMetadata's change events, are updated, along with datasets
+     * that failed last time; without a usable event cursor a full sync runs instead.
+     */
+    public void populateDescriptions(boolean force, boolean incremental, JobProgress progress) {
+        final Instant syncStartedAt = Instant.now();
+        Set<Integer> failed;
+        Optional<Set<String>> changedTables = Optional.empty();
+        if (incremental && !force) {
+            Instant cursor = localStateStore.read(GLOSSARY_EVENTS_CURSOR, new TypeReference<Instant>() {}, () -> null);
+            changedTables = cursor == null ? Optional.empty() : glossaryService.getChangedTables(cursor);
+            if (changedTables.isEmpty()) {
+                LOG.info("No usable glossary event cursor, running a full description sync");
+            }
+        }
+        if (changedTables.isPresent()) {
+            Set<String> tables = changedTables.get();
+            Set<Integer> retry = localStateStore.read(DESCRIPTION_RETRY, new TypeReference<Set<Integer>>() {}, HashSet::new);
+            Map<Integer, String> affected = new LinkedHashMap<>();
+            if (!tables.isEmpty() || !retry.isEmpty()) {
+                getSupersetDatasets("id,table_name").forEach(dataset -> {
+                    int id = dataset.get("id").intValue();
+                    String tableName = dataset.path("table_name").textValue();
+                    if (tables.contains(tableName) || retry.contains(id)) {
+                        affected.put(id, tableName);
+                    }
+                });
+            }
+            LOG.info("{} datasets affected by glossary changes, {} retried", affected.size(), retry.size());
+            progress.setTotal(affected.size());
+            failed = affected.isEmpty() ? Set.of() : populateDescriptions(affected.keySet().iterator(),
+                    glossaryService.loadGlossaryIndex(new HashSet<>(affected.values())), false, progress);
+        } else {
+            PagedResultIterator datasets = getSupersetDatasetPages("id");
+            if (!datasets.hasNext()) {
+                LOG.info("No datasets found");
+                return;
+            }
+            progress.setTotal(datasets.getCount());
+            Iterator<Integer> ids = StreamSupport.stream(Spliterators.spliteratorUnknownSize(datasets, Spliterator.ORDERED), false)
+                    .map(dataset -> dataset.get("id").intValue()).iterator();
+            failed = populateDescriptions(ids, glossaryService.loadGlossaryIndex(), force, progress);
+        }
+        // A cancelled run leaves the cursor alone; failed datasets are retried by the next incremental run. The
+        // overlap absorbs clock skew with OpenMetadata
+        if (failed != null) {
+            localStateStore.write(DESCRIPTION_RETRY, failed);
+            localStateStore.write(GLOSSARY_EVENTS_CURSOR, syncStartedAt.minus(GLOSSARY_EVENTS_OVERLAP));
+        }
     }
 
-    private Map<String, List<String>> getSupersetColumnNames(List<Integer> tablesIds) {
-        Map<String, List<String>> columnsMap = new HashMap<>();
-        for (Integer tableId : tablesIds) {
-            JsonNode node = getSupersetColumns(tableId);
-            if (node != null) {
-                Iterator<JsonNode> columnNames = node.get("result").get("columns").iterator();
-                String datasetName = node.get("result").get("table_name").textValue();
-                if (datasetName != null) {
-                    List<String> columnNameList = new ArrayList<>();
-                    while (columnNames.hasNext()) {
-                        columnNameList.add(columnNames.next().get("column_name").textValue());
+    // Returns the datasets that failed, or null when the run was cancelled
+    private Set<Integer> populateDescriptions(Iterator<Integer> ids, GlossaryIndex glossaryIndex, boolean force,
+                                              JobProgress progress) {
+        int skipped = 0;
+        Set<Integer> failed = new HashSet<>();
+        try {
+            while (ids.hasNext()) {
+                if (progress.isCancelled()) {
+                    return null;
+                }
+                Integer id = ids.next();
+                try {
+                    if (updateDatasetDescriptions(id, glossaryIndex, force)) {
+                        skipped++;
                     }
-                    columnsMap.put(datasetName, columnNameList);
+                    progress.itemDone();
+                } catch (RestClientException e) {
+                    failed.add(id);
+                    progress.itemFailed(id.toString(), e.getMessage());
+                    LOG.error("Failed to update descriptions for dataset {}", id, e);
                 }
             }
+        } finally {
+            LOG.info("Skipped {} datasets whose descriptions already match the glossary", skipped);
         }
-        return columnsMap;
+        return failed;
     }
 
-    public void generateAndShareChangeLog() {
-        String changeLog = generateChangeLog();
-        int count = changeLog.split("\r\n|\r|\n").length;
-        LOG.info("Generated {} changes log count", count);
-        if (count > 1) {
-            final String subject = "Self-service Change log";
-            emailService.sendEmail("selfservice-dwh@mg.kenyahmis.org", mailProperties.getProperties().get("recipients"),
-                    subject, changeLog);
+    /**
+     * Copies glossary descriptions onto a single dataset, throwing on failure. Used by work queue tasks.
+     */
+    public void updateDatasetDescriptions(int id, GlossaryIndex glossaryIndex) {
+        updateDatasetDescriptions(id, glossaryIndex, false);
+    }
+
+    // Returns true when the dataset was skipped because Superset already holds the glossary descriptions
+    private boolean updateDatasetDescriptions(Integer id, GlossaryIndex glossaryIndex, boolean force) {
+        DatasetDetail dataset = supersetDatasetReader.getDataset(id);
+        String tableName = dataset.tableName();
+        List<DatasetColumn> newColumns = new ArrayList<>();
+        String tableDescription = glossaryIndex.getTableDescription(tableName);
+        if (tableDescription == null) {
+            LOG.warn("Glossary term not found for table: {}", tableName);
+            return false;
+        }
+        for (DatasetColumn column : dataset.columns()) {
+            String columnDescription = glossaryIndex.getColumnDescription(tableName, column.columnName());
+            if (columnDescription == null) {
+                LOG.debug("Glossary term not found for column: {}.{}", tableName, column.columnName());
+                continue;
+            }
+            newColumns.add(column.withDescription(columnDescription));
+        }
+        if (!force && descriptionsMatch(dataset, tableDescription, newColumns)) {
+            LOG.debug("Descriptions unchanged for dataset {}", id);
+            return true;
         }
+        // update the table & column definitions
+        updateColumnDescriptions(newColumns, tableDescription, id);
+        LOG.info("Updated descriptions for {} columns of {}", newColumns.size(), tableName);
+        return false;
     }
-    private String generateChangeLog() {
-        Map<String, List<String>> reportingDbColumnMap = getReportingDbColumnNames(getReportingDbTableNames());
-        Map<String, List<String>> supersetColumnMap = getSupersetColumnNames(getSupersetDatasetIds());
-        List<String> newDatasets = getNewDatasets();
-        StringBuilder changelogBuilder = new StringBuilder();
 
-        if (!newDatasets.isEmpty()) {
-            changelogBuilder.append("New Datasets: \n");
-            changelogBuilder.append(Arrays.toString(getNewDatasets().toArray())).append("\n\n");
+    // Compared with what Superset holds now, so descriptions edited or cleared in Superset are put back
+    private static boolean descriptionsMatch(DatasetDetail dataset, String tableDescription,
+                                             List<DatasetColumn> describedColumns) {
+        if (!tableDescription.equals(dataset.description())) {
+            return false;
         }
-        for (String datasetName : reportingDbColumnMap.keySet()) {
-            if (supersetColumnMap.containsKey(datasetName)) {
-                List<String> newColumns = getTargetSymmetricDifference(reportingDbColumnMap.get(datasetName), supersetColumnMap.get(datasetName));
-                List<String> deletedColumns = getTargetSymmetricDifference(supersetColumnMap.get(datasetName), reportingDbColumnMap.get(datasetName));
-                if (!newColumns.isEmpty()) {
-                    changelogBuilder.append("- New columns in ").append(datasetName).append(": ").append(Arrays.toString(newColumns.toArray())).append("\n");
-                }
-                if (!deletedColumns.isEmpty()) {
-                    changelogBuilder.append("- Deleted columns in ").append(datasetName).append(": ").append(Arrays.toString(deletedColumns.toArray())).append("\n");
+        Map<String, String> current = new HashMap<>();
+        dataset.columns().forEach(column -> current.put(column.columnName(), column.description()));
+        return describedColumns.stream()
+                .allMatch(column -> column.description().equals(current.get(column.columnName())));
+    }
+
+    /**
+     * Creates Superset datasets for reporting tables that do not have one yet. In bulk mode the tables are
+     * uploaded as import bundles of {@code importChunkSize} tables; a rejected bundle falls back to creating its
+     * tables one at a time, as do tables still missing after their bundle was accepted. Imported datasets are
+     * given the configured owner. Row level security is provisioned afterwards when enabled.
+     *
+     * @return the outcome per table: "imported", "created" or "failed"
+     */
+    public Map<String, String> addNewDatasets(boolean bulk, JobProgress progress) {
+        SchemaSnapshot reportingSchema = reportingSchemaLoader.load();
+        List<String> newDatasets = getNewDatasets(reportingSchema, getSupersetDatasetNames());
+        progress.setTotal(newDatasets.size());
+        Map<String, String> results = new LinkedHashMap<>();
+        DatasetImportService.DatabaseExport database = null;
+        if (bulk && !newDatasets.isEmpty()) {
+            try {
+                database = datasetImportService.exportDatabase();
+            } catch (RestClientException | IllegalStateException e) {
+                LOG.warn("Could not export the reporting database from Superset, creating datasets one at a time", e);
+            }
+        }
+        int chunkSize = Math.max(1, supersetApiProperties.getImportChunkSize());
+        List<String> imported = new ArrayList<>();
+        for (int from = 0; from < newDatasets.size() && !progress.isCancelled(); from += chunkSize) {
+            List<String> chunk = newDatasets.subList(from, Math.min(from + chunkSize, newDatasets.size()));
+            if (database != null && datasetImportService.importDatasets(chunk, reportingSchema, database)) {
+                imported.addAll(chunk);
+                continue;
+            }
+            for (String datasetName : chunk) {
+                if (progress.isCancelled()) {
+                    break;
                 }
+                createDataset(datasetName, results, progress);
+            }
+        }
+        if (!imported.isEmpty()) {
+            completeImport(imported, results, progress);
+        }
+        if (rlsProvisioningService.isEnabled() && !progress.isCancelled()) {
+            try {
+                provisionRowLevelSecurity();
+            } catch (RestClientException e) {
+                LOG.error("Failed to provision row level security after the dataset sync", e);
             }
         }
-        String changeLog = changelogBuilder.toString();
-        LOG.info(changeLog);
-        return changeLog;
+        return results;
     }
-    private JsonNode getSupersetColumns(Integer datasetId) {
-        String token = getAccessToken();
-        final String host = supersetApiProperties.getBaseUrl();
-        final String columns = "columns.column_name,table_name";
-        String uri  = String.format("%s/api/v1/dataset/%d?q=(page:%d,page_size:%d,columns:!(%s))", host, datasetId, DEFAULT_PAGE, DEFAULT_PAGE_SIZE, columns);
-        ResponseEntity<JsonNode> response =  defaultClient.get()
-                .uri(uri)
-                .header("Authorization","Bearer " + token)
-                .retrieve()
-                .toEntity(JsonNode.class);
-        return response.getBody();
-    }
-    private List<Integer> getSupersetDatasetIds() {
-        List<Integer> supersetDatasetIds = new ArrayList<>();
-        JsonNode node = getSupersetDatasets();
-        Iterator<JsonNode> datasets = null;
-        if (node != null) {
-            datasets = node.get("ids").iterator();
-            while (datasets.hasNext()) {
-                JsonNode datasetId = datasets.next();
-                supersetDatasetIds.add(datasetId.intValue());
+
+    // Superset may accept a bundle without creating every dataset in it, and bundles cannot carry owners, so each
+    // imported table is looked up again: missing ones are created directly and the others get their owner
+    private void completeImport(List<String> imported, Map<String, String> results, JobProgress progress) {
+        Map<String, Integer> datasetIds = new HashMap<>();
+        getReportingDatasets("id,table_name").forEach(dataset ->
+                datasetIds.put(dataset.path("table_name").textValue(), dataset.get("id").intValue()));
+        for (String datasetName : imported) {
+            if (progress.isCancelled()) {
+                break;
+            }
+            Integer datasetId = datasetIds.get(datasetName);
+            if (datasetId == null) {
+                LOG.warn("Dataset {} is missing after its import, creating it directly", datasetName);
+                createDataset(datasetName, results, progress);
+            } else if (setDatasetOwner(datasetId)) {
+                results.put(datasetName, "imported");
+                progress.itemDone();
+            } else {
+                results.put(datasetName, "failed");
+                progress.itemFailed(datasetName, "Imported without an owner");
             }
         }
-        return supersetDatasetIds;
     }
-    private JsonNode getSupersetDatasets() {
-        String token = getAccessToken();
-        final String host = supersetApiProperties.getBaseUrl();
-        final String columns = "table_name";
-        String uri  = String.format("%s/api/v1/dataset/?q=(page:%d,page_size:%d,columns:!(%s))", host, DEFAULT_PAGE, DEFAULT_PAGE_SIZE, columns);
-        LOG.info("URI is: {}", uri);
-        ResponseEntity<JsonNode> response =  defaultClient.get()
-                .uri(uri)
-                .header("Authorization","Bearer " + token)
-                .retrieve()
-                .toEntity(JsonNode.class);
-        return response.getBody();
+
+    private void createDataset(String datasetName, Map<String, String> results, JobProgress progress) {
+        if (addDataset(datasetName)) {
+            results.put(datasetName, "created");
+            progress.itemDone();
+        } else {
+            results.put(datasetName, "failed");
+            progress.itemFailed(datasetName, "Superset rejected the dataset");
+        }
     }
-    private List<String> getSupersetDatasetNames() {
-        List<String> datasetNames = new ArrayList<>();
-        JsonNode node = getSupersetDatasets();
-        Iterator<JsonNode> datasets = null;
-        if (node != null) {
-            datasets = node.get("result").iterator();
-            while (datasets.hasNext()) {
-                JsonNode tableNameNode = datasets.next();
-                datasetNames.add(tableNameNode.get("table_name").textValue());
+
+    /**
+     * Brings the row level security rules of the reporting database's datasets in line with the configured rules.
+     * Datasets of other databases are left out, so a rule cannot pick up a same-named table from another source.
+     */
+    public RlsProvisioningSummary provisionRowLevelSecurity() {
+        Map<Integer, String> datasets = new HashMap<>();
+        stream(getSupersetDatasetPages("id,table_name", reportingDatabaseFilter())).forEach(dataset ->
+                datasets.put(dataset.get("id").intValue(), dataset.path("table_name").textValue()));
+        return rlsProvisioningService.provision(datasets);
+    }
+    private List<String> getNewDatasets(SchemaSnapshot reportingSchema, Collection<String> supersetDatasetNames) {
+        List<String> newDatasets = SchemaDiffEngine.difference(reportingSchema.getTableNames(), supersetDatasetNames)
+                .stream().filter(e -> !DATASET_EXCLUSIONS.contains(e)).toList();
+        LOG.info("Found {} new datasets", newDatasets.size());
+        return newDatasets;
+    }
+
+    private SchemaSnapshot getSupersetSchema() {
+        if (supersetDatabaseProperties.getMetadataSource() == SupersetDatabaseProperties.MetadataSource.DATABASE) {
+            try {
+                return supersetMetadataReader.load(supersetApiProperties.getReportingDatabaseId());
+            } catch (DataAccessException e) {
+                LOG.warn("Failed to read Superset metadata database, falling back to the REST API", e);
+            }
+        }
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        for (Integer tableId : getReportingDatasets("id").map(dataset -> dataset.get("id").intValue()).toList()) {
+            DatasetDetail dataset = supersetDatasetReader.getDatasetSchema(tableId);
+            String datasetName = dataset.tableName();
+            if (datasetName != null) {
+                snapshot.addTable(datasetName);
+                int ordinal = 1;
+                for (DatasetColumn column : dataset.columns()) {
+                    snapshot.addColumn(datasetName, new ColumnSchema(column.columnName(), column.type(), ordinal++, null));
+                }
             }
         }
-        return datasetNames;
+        return snapshot;
+    }
+
+    public SchemaDiff generateAndShareChangeLog(boolean compareWithSuperset) {
+        SchemaSnapshot reportingSchema = reportingSchemaLoader.load();
+        SchemaDiff schemaDiff = generateChangeLog(reportingSchema, compareWithSuperset);
+        if (schemaDiff.isEmpty()) {
+            LOG.info("No schema changes found");
+        } else {
+            String changeLog = schemaDiffEngine.formatChangeLog(schemaDiff);
+            LOG.info(changeLog);
+            emailService.sendEmail("selfservice-dwh@mg.kenyahmis.org", mailProperties.getProperties().get("recipients"),
+                    supersetApiProperties.getChangeLogSubject(), changeLog);
+        }
+        // Saved only once the changelog is queued, so a run that fails before then reports the same changes again
+        schemaSnapshotStore.save(reportingSchema);
+        return schemaDiff;
+    }
+    // Diffs against the previous run's snapshot, or against Superset when there is none yet or when asked to
+    private SchemaDiff generateChangeLog(SchemaSnapshot reportingSchema, boolean compareWithSuperset) {
+        Optional<SchemaSnapshot> previousSchema = compareWithSuperset ? Optional.empty()
+                : schemaSnapshotStore.latest().flatMap(previous -> schemaSnapshotStore.load(previous.id()));
+        SchemaSnapshot baseline = previousSchema.orElseGet(this::getSupersetSchema);
+        SchemaDiff schemaDiff = schemaDiffEngine.diff(reportingSchema, baseline, DATASET_EXCLUSIONS);
+        LOG.info("Found {} new, {} removed and {} changed datasets compared to {}", schemaDiff.addedTables().size(),
+                schemaDiff.removedTables().size(), schemaDiff.changedTables().size(),
+                previousSchema.isPresent() ? "the previous snapshot" : "Superset");
+        return schemaDiff;
+    }
+
+    public SchemaDiff getChangeLogHistory(String fromId, String toId) {
+        SchemaSnapshot from = schemaSnapshotStore.load(fromId)
+                .orElseThrow(() -> new NoSuchElementException("Unknown schema snapshot " + fromId));
+        SchemaSnapshot to = schemaSnapshotStore.load(toId)
+                .orElseThrow(() -> new NoSuchElementException("Unknown schema snapshot " + toId));
+        return schemaDiffEngine.diff(to, from, DATASET_EXCLUSIONS);
+    }
+
+    public List<SnapshotInfo> getSchemaSnapshots() {
+        return schemaSnapshotStore.list();
+    }
+    public List<Integer> getDatasetIds() {
+        return getSupersetDatasets("id").map(dataset -> dataset.get("id").intValue()).toList();
+    }
+    private Stream<JsonNode> getSupersetDatasets(String columns) {
+        return stream(getSupersetDatasetPages(columns, null));
+    }
+    // Physical datasets of the reporting database, the only ones with a counterpart in the reporting schema
+    private Stream<JsonNode> getReportingDatasets(String columns) {
+        return stream(getSupersetDatasetPages(columns,
+                reportingDatabaseFilter() + ",(col:sql,opr:dataset_is_null_or_empty,value:!t)"));
     }
-    private Iterator<JsonNode> getDatasetIds(){
-        String token = getAccessToken();
+    private String reportingDatabaseFilter() {
+        return String.format("(col:database,opr:rel_o_m,value:%d)", supersetApiProperties.getReportingDatabaseId());
+    }
+    private static Stream<JsonNode> stream(Iterator<JsonNode> datasets) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(datasets, Spliterator.ORDERED), false);
+    }
+    private PagedResultIterator getSupersetDatasetPages(String columns) {
+        return getSupersetDatasetPages(columns, null);
+    }
+    private PagedResultIterator getSupersetDatasetPages(String columns, String filters) {
         final String host = supersetApiProperties.getBaseUrl();
-        final String columns = "id";
-        String uri  = String.format("%s/api/v1/dataset/?q=(page:%d,page_size:%d,columns:!(%s))", host, DEFAULT_PAGE, DEFAULT_PAGE_SIZE, columns);
-        LOG.info("URI is: {}", uri);
-        ResponseEntity<JsonNode> response =  defaultClient.get()
-                .uri(uri)
-                .header("Authorization","Bearer " + token)
-                .retrieve()
-                .toEntity(JsonNode.class);
-        JsonNode node = response.getBody();
-        Iterator<JsonNode> datasets = null;
-        if (node != null) {
-            datasets = node.get("ids").iterator();
+        final int pageSize = supersetApiProperties.getDatasetPageSize();
+        final String query = filters == null ? "" : ",filters:!(" + filters + ")";
+        IntFunction<JsonNode> pageFetcher = page -> {
+            // Superset sorts by changed_on by default, so a dataset edited mid-walk would move between pages
+            String uri  = String.format("%s/api/v1/dataset/?q=(order_column:id,order_direction:asc,page:%d,page_size:%d,columns:!(%s)%s)",
+                    host, page, pageSize, columns, query);
+            LOG.info("URI is: {}", uri);
+            return supersetTokenManager.withAccessToken(token -> defaultClient.get()
+                    .uri(uri)
+                    .header("Authorization","Bearer " + token)
+                    .retrieve()
+                    .body(JsonNode.class));
+        };
+        return new PagedResultIterator(pageFetcher, prefetchExecutor);
+    }
+    private List<String> getSupersetDatasetNames() {
+        if (supersetDatabaseProperties.getMetadataSource() == SupersetDatabaseProperties.MetadataSource.DATABASE) {
+            try {
+                return new ArrayList<>(supersetMetadataReader.load(supersetApiProperties.getReportingDatabaseId()).getTableNames());
+            } catch (DataAccessException e) {
+                LOG.warn("Failed to read Superset metadata database, falling back to the REST API", e);
+            }
         }
-        return datasets;
+        return getReportingDatasets("table_name").map(dataset -> dataset.get("table_name").textValue()).toList();
     }
-    private void addDataset(String datasetName) {
-        String token = getAccessToken();
+    private boolean addDataset(String datasetName) {
         final String host = supersetApiProperties.getBaseUrl();
         String uri  = String.format("%s/api/v1/dataset/", host);
-        int reportingDbId = 2;
-        int adminId = 1;
+        int reportingDbId = supersetApiProperties.getReportingDatabaseId();
+        int adminId = supersetApiProperties.getDatasetOwnerId();
         JsonNode requestBody = JsonNodeFactory.instance.objectNode()
                 .put("database", reportingDbId)
                 .put("is_managed_externally", true)
@@ -344,63 +606,71 @@ public class APIService {
                 .set("owners", JsonNodeFactory.instance.arrayNode()
                         .add(JsonNodeFactory.instance.numberNode(adminId)));
         try {
-            ResponseEntity<Void> response = defaultClient
+            ResponseEntity<Void> response = supersetTokenManager.withAccessToken(token -> defaultClient
                     .post()
                     .uri(uri)
                     .header("Authorization", "Bearer " + token)
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(requestBody)
                     .retrieve()
-                    .toBodilessEntity();
+                    .toBodilessEntity());
             if (response.getStatusCode().is2xxSuccessful()) {
                 LOG.info("Successfully created dataset: {}", datasetName);
+                return true;
             }
         } catch (HttpClientErrorException ce) {
             LOG.error("Failed to add dataset {} with message {}", datasetName, ce.getResponseBodyAs(String.class), ce );
         }
+        return false;
     }
-    private JsonNode getColumnsAll(Integer datasetId){
-        String token = getAccessToken();
-        final String host = supersetApiProperties.getBaseUrl();
-        //TODO: Only select columns that are needed
-        String uri  = String.format("%s/api/v1/dataset/%d", host, datasetId);
-        LOG.info("URI is: {}", uri);
-        ResponseEntity<JsonNode> response =  defaultClient.get()
-                .uri(uri)
-                .header("Authorization","Bearer " + token)
-                .retrieve()
-                .toEntity(JsonNode.class);
-        JsonNode dataset = response.getBody();
-        assert dataset != null;
-        return dataset.get("result");
+    private boolean setDatasetOwner(int datasetId) {
+        final String uri = String.format("%s/api/v1/dataset/%d", supersetApiProperties.getBaseUrl(), datasetId);
+        JsonNode requestBody = JsonNodeFactory.instance.objectNode()
+                .set("owners", JsonNodeFactory.instance.arrayNode().add(supersetApiProperties.getDatasetOwnerId()));
+        try {
+            supersetTokenManager.withAccessToken(token -> defaultClient.put()
+                    .uri(uri)
+                    .header("Authorization", "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(requestBody)
+                    .retrieve()
+                    .toBodilessEntity());
+            return true;
+        } catch (RestClientException e) {
+            LOG.error("Failed to set the owner of imported dataset {}", datasetId, e);
+            return false;
+        }
     }
-
-    private void updateColumnDescriptions(List<JsonNode> columns, String tableDescription, Integer datasetId){
-        String token = getAccessToken();
+    private void updateColumnDescriptions(List<DatasetColumn> columns, String tableDescription, Integer datasetId){
         final String host = supersetApiProperties.getBaseUrl();
         String uri  = String.format("%s/api/v1/dataset/%d?override_columns=true", host, datasetId);
-        JsonNode requestBody = JsonNodeFactory.instance.objectNode()
-                .put("description", tableDescription)
-                .set("columns", JsonNodeFactory.instance.arrayNode()
-                        .addAll(columns));
-        LOG.info(requestBody.toString());
-        LOG.info("URI is: {}", uri);
-        ResponseEntity<JsonNode> response =  defaultClient.put()
+        StreamingHttpOutputMessage.Body requestBody = descriptionUpdateBody(objectMapper, tableDescription, columns);
+        LOG.info("Updating table description and {} column descriptions of dataset {}", columns.size(), datasetId);
+        supersetTokenManager.withAccessToken(token -> defaultClient.put()
                 .uri(uri)
                 .header("Authorization","Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(requestBody)
                 .retrieve()
-                .toEntity(JsonNode.class);
+                .toBodilessEntity());
+        supersetDatasetReader.invalidate(datasetId);
     }
 
-    private JsonNode formatColumnNode(JsonNode column, String... keysToRemove) {
-        if (column.isObject()) {
-            ObjectNode modifiedNode = ((ObjectNode) column).deepCopy();
-            for (String key : keysToRemove) {
-                modifiedNode.remove(key);
+    // Written field by field straight to the request instead of building the body as a tree first
+    static StreamingHttpOutputMessage.Body descriptionUpdateBody(ObjectMapper objectMapper, String tableDescription,
+                                                                List<DatasetColumn> columns) {
+        return out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("description", tableDescription);
+            generator.writeArrayFieldStart("columns");
+            for (DatasetColumn column : columns) {
+                generator.writeObject(column);
             }
-            return modifiedNode;
-        }
-        return column;
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.close();
+        };
     }
 }
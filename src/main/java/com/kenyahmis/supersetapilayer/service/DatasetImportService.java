@@ -0,0 +1,215 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.model.ColumnSchema;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Creates datasets in bulk by uploading a Superset import bundle (YAML files in a zip) to
+ * {@code /api/v1/dataset/import/}, instead of one {@code POST /api/v1/dataset/} per table.
+ */
+@Service
+public class DatasetImportService {
+    private static final String BUNDLE_ROOT = "dataset_import";
+    private static final String SCHEMA = "dbo";
+
+    private final RestClient defaultClient;
+    private final SupersetApiProperties supersetApiProperties;
+    private final SupersetTokenManager supersetTokenManager;
+    private final Yaml yaml;
+    private final Logger LOG = LoggerFactory.getLogger(DatasetImportService.class);
+
+    public DatasetImportService(RestClient defaultClient, SupersetApiProperties supersetApiProperties,
+                                SupersetTokenManager supersetTokenManager) {
+        this.defaultClient = defaultClient;
+        this.supersetApiProperties = supersetApiProperties;
+        this.supersetTokenManager = supersetTokenManager;
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        this.yaml = new Yaml(options);
+    }
+
+    /**
+     * Imports one chunk of tables. Superset applies an import bundle all-or-nothing, so the whole chunk
+     * either succeeds or fails together.
+     */
+    public boolean importDatasets(List<String> tableNames, SchemaSnapshot reportingSchema, DatabaseExport database) {
+        byte[] bundle = buildBundle(tableNames, reportingSchema, database);
+        final String uri = String.format("%s/api/v1/dataset/import/", supersetApiProperties.getBaseUrl());
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("formData", new ByteArrayResource(bundle) {
+            @Override
+            public String getFilename() {
+                return BUNDLE_ROOT + ".zip";
+            }
+        });
+        form.add("overwrite", "false");
+        try {
+            supersetTokenManager.withAccessToken(token -> defaultClient.post()
+                    .uri(uri)
+                    .header("Authorization", "Bearer " + token)
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+                    .body(form)
+                    .retrieve()
+                    .toBodilessEntity());
+            LOG.info("Imported {} datasets in one bundle of {} bytes", tableNames.size(), bundle.length);
+            return true;
+        } catch (RestClientException e) {
+            LOG.warn("Dataset import bundle of {} tables was rejected: {}", tableNames.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Exports the reporting database definition from Superset; every bundle must carry it so the datasets can
+     * reference it by UUID.
+     */
+    public DatabaseExport exportDatabase() {
+        final String uri = String.format("%s/api/v1/database/export/?q=!(%d)", supersetApiProperties.getBaseUrl(),
+                supersetApiProperties.getReportingDatabaseId());
+        byte[] export = supersetTokenManager.withAccessToken(token -> defaultClient.get()
+                .uri(uri)
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .body(byte[].class));
+        if (export == null) {
+            throw new IllegalStateException("Superset returned an empty database export");
+        }
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(export))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (name.contains("/databases/") && name.endsWith(".yaml")) {
+                    byte[] content = zip.readAllBytes();
+                    Map<String, Object> definition = yaml.load(new String(content, StandardCharsets.UTF_8));
+                    return new DatabaseExport(name.substring(name.lastIndexOf('/') + 1),
+                            String.valueOf(definition.get("database_name")), String.valueOf(definition.get("uuid")),
+                            content);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read Superset database export", e);
+        }
+        throw new IllegalStateException("Superset database export did not contain a database definition");
+    }
+
+    byte[] buildBundle(List<String> tableNames, SchemaSnapshot reportingSchema, DatabaseExport database) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("version", "1.0.0");
+            metadata.put("type", "SqlaTable");
+            metadata.put("timestamp", Instant.now().toString());
+            writeEntry(zip, BUNDLE_ROOT + "/metadata.yaml", yaml.dump(metadata).getBytes(StandardCharsets.UTF_8));
+            writeEntry(zip, BUNDLE_ROOT + "/databases/" + database.fileName(), database.definition());
+            String datasetDir = BUNDLE_ROOT + "/datasets/" + safeFileName(database.databaseName()) + "/";
+            for (String tableName : tableNames) {
+                String dataset = yaml.dump(datasetDefinition(tableName, reportingSchema, database.uuid()));
+                writeEntry(zip, datasetDir + safeFileName(tableName) + ".yaml", dataset.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to build dataset import bundle", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Map<String, Object> datasetDefinition(String tableName, SchemaSnapshot reportingSchema, String databaseUuid) {
+        Map<String, Object> dataset = new LinkedHashMap<>();
+        dataset.put("table_name", tableName);
+        dataset.put("main_dttm_col", null);
+        dataset.put("description", null);
+        dataset.put("default_endpoint", null);
+        dataset.put("offset", 0);
+        dataset.put("cache_timeout", null);
+        dataset.put("schema", SCHEMA);
+        dataset.put("sql", null);
+        dataset.put("params", null);
+        dataset.put("template_params", null);
+        dataset.put("filter_select_enabled", true);
+        dataset.put("fetch_values_predicate", null);
+        dataset.put("extra", null);
+        dataset.put("is_managed_externally", true);
+        dataset.put("external_url", null);
+        // Deterministic so re-importing the same table maps to the same dataset
+        dataset.put("uuid", UUID.nameUUIDFromBytes((databaseUuid + "." + SCHEMA + "." + tableName)
+                .getBytes(StandardCharsets.UTF_8)).toString());
+        Map<String, Object> count = new LinkedHashMap<>();
+        count.put("metric_name", "count");
+        count.put("verbose_name", "COUNT(*)");
+        count.put("metric_type", "count");
+        count.put("expression", "COUNT(*)");
+        count.put("description", null);
+        count.put("d3format", null);
+        count.put("extra", null);
+        count.put("warning_text", null);
+        dataset.put("metrics", List.of(count));
+        List<Map<String, Object>> columns = new ArrayList<>();
+        for (ColumnSchema column : reportingSchema.getColumns(tableName).values()) {
+            Map<String, Object> definition = new LinkedHashMap<>();
+            definition.put("column_name", column.name());
+            definition.put("verbose_name", null);
+            definition.put("is_dttm", isTemporal(column.dataType()));
+            definition.put("is_active", true);
+            definition.put("type", column.dataType() == null ? null : column.dataType().toUpperCase(Locale.ROOT));
+            definition.put("groupby", true);
+            definition.put("filterable", true);
+            definition.put("expression", null);
+            definition.put("description", null);
+            definition.put("python_date_format", null);
+            definition.put("extra", null);
+            columns.add(definition);
+        }
+        dataset.put("columns", columns);
+        dataset.put("version", "1.0.0");
+        dataset.put("database_uuid", databaseUuid);
+        return dataset;
+    }
+
+    private static boolean isTemporal(String dataType) {
+        if (dataType == null) {
+            return false;
+        }
+        String type = dataType.toLowerCase(Locale.ROOT);
+        return type.startsWith("date") || type.startsWith("smalldatetime") || type.equals("time");
+    }
+
+    private static void writeEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    private static String safeFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    public record DatabaseExport(String fileName, String databaseName, String uuid, byte[] definition) {
+    }
+}
@@ -0,0 +1,317 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.model.OutboxMessage;
+import com.kenyahmis.supersetapilayer.properties.OutboxProperties;
+import com.kenyahmis.supersetapilayer.properties.StorageProperties;
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Persistent email outbox. Messages are written to {@code <dataDir>/outbox} and delivered by a background worker
+ * over one SMTP connection that is kept open between messages and reopened once the server drops it. Failed
+ * deliveries are retried with exponential backoff; messages the server rejects permanently (5xx) or that run out of
+ * attempts are moved to {@code outbox/dead} rather than lost. When only some recipients fail, the message is kept
+ * for just those. Sent messages are moved to {@code outbox/sent} and kept for
+ * {@code sentRetention}.
+ */
+@Service
+public class EmailOutbox {
+    private final Session mailSession;
+    private final OutboundMetrics outboundMetrics;
+    private final OutboxProperties outboxProperties;
+    private final ObjectMapper objectMapper;
+    private final Path outboxDir;
+    private final Path deadLetterDir;
+    private final Path sentDir;
+    // Sent messages whose file could not be moved out of the outbox, so they are not sent again
+    private final Set<Path> sentButNotMoved = new HashSet<>();
+    private final ScheduledExecutorService worker;
+    private Transport transport;
+    private long transportLastUsed;
+    private final Logger LOG = LoggerFactory.getLogger(EmailOutbox.class);
+
+    @Autowired
+    public EmailOutbox(Session mailSession, OutboundMetrics outboundMetrics, OutboxProperties outboxProperties,
+                       ObjectMapper objectMapper, StorageProperties storageProperties) {
+        this(mailSession, outboundMetrics, outboxProperties, objectMapper,
+                Path.of(storageProperties.getDataDir()).resolve("outbox"));
+    }
+
+    public EmailOutbox(Session mailSession, OutboundMetrics outboundMetrics, OutboxProperties outboxProperties,
+                       ObjectMapper objectMapper, Path outboxDir) {
+        this.mailSession = mailSession;
+        this.outboundMetrics = outboundMetrics;
+        this.outboxProperties = outboxProperties;
+        this.objectMapper = objectMapper;
+        this.outboxDir = outboxDir;
+        this.deadLetterDir = outboxDir.resolve("dead");
+        this.sentDir = outboxDir.resolve("sent");
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("email.outbox.size", this, EmailOutbox::size)
+                .description("Emails waiting for delivery")
+                .register(outboundMetrics.getMeterRegistry());
+    }
+
+    @PostConstruct
+    public void start() {
+        long pollMillis = outboxProperties.getPollInterval().toMillis();
+        worker.scheduleWithFixedDelay(this::deliverDue, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+        closeTransport();
+    }
+
+    /**
+     * Stores the message and returns immediately; delivery happens on the outbox worker.
+     */
+    public OutboxMessage enqueue(String from, String to, String subject, String text) {
+        Instant now = Instant.now();
+        OutboxMessage message = new OutboxMessage(now.toEpochMilli() + "-" + UUID.randomUUID(), from, to, subject,
+                text, now, 0, now, null);
+        write(outboxDir, message);
+        LOG.info("Queued email '{}' to {}", subject, to);
+        worker.execute(this::deliverDue);
+        return message;
+    }
+
+    public int size() {
+        return list(outboxDir).size();
+    }
+
+    // Runs on the worker thread only, so the transport needs no further locking
+    private void deliverDue() {
+        try {
+            Instant now = Instant.now();
+            for (Path file : list(outboxDir)) {
+                if (sentButNotMoved.contains(file)) {
+                    continue;
+                }
+                OutboxMessage message = read(file);
+                if (message == null || message.nextAttemptAt().isAfter(now)) {
+                    continue;
+                }
+                deliver(file, message);
+            }
+            if (transport != null && System.currentTimeMillis() - transportLastUsed
+                    > outboxProperties.getIdleTimeout().toMillis()) {
+                closeTransport();
+            }
+            pruneSent(now.minus(outboxProperties.getSentRetention()));
+        } catch (RuntimeException e) {
+            LOG.error("Email outbox run failed", e);
+        }
+    }
+
+    private void deliver(Path file, OutboxMessage message) {
+        long start = System.nanoTime();
+        String status = "error";
+        try {
+            MimeMessage mimeMessage = EmailService.toMimeMessage(mailSession, message);
+            Transport connected = connectedTransport();
+            connected.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+            transportLastUsed = System.currentTimeMillis();
+            status = "ok";
+        } catch (SendFailedException e) {
+            // The server answered, so the connection is still good
+            recipientsFailed(file, message, e);
+            return;
+        } catch (MessagingException e) {
+            // The connection may be the problem; the next message gets a fresh one
+            closeTransport();
+            retryLater(file, message, e);
+            return;
+        } finally {
+            outboundMetrics.record(OutboundMetrics.SMTP, "send", "SEND", status, System.nanoTime() - start);
+        }
+        markSent(file);
+        LOG.info("Email '{}' sent successfully to {}", message.subject(), message.to());
+    }
+
+    private void markSent(Path file) {
+        try {
+            Files.createDirectories(sentDir);
+            Path sent = Files.move(file, sentDir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            // Retention counts from delivery, not from when the message was queued
+            Files.setLastModifiedTime(sent, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            sentButNotMoved.add(file);
+            LOG.error("Sent email {} could not be moved to {}, it will not be sent again until restart", file,
+                    sentDir, e);
+        }
+    }
+
+    private void pruneSent(Instant sentBefore) {
+        for (Path file : list(sentDir)) {
+            try {
+                if (Files.getLastModifiedTime(file).compareTo(FileTime.from(sentBefore)) < 0) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                LOG.warn("Failed to remove sent email {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private void recipientsFailed(Path file, OutboxMessage message, SendFailedException e) {
+        String sent = join(e.getValidSentAddresses());
+        String unsent = join(e.getValidUnsentAddresses());
+        String invalid = join(e.getInvalidAddresses());
+        if (unsent.isEmpty() && invalid.isEmpty()) {
+            retryLater(file, message, e);
+            return;
+        }
+        if (!invalid.isEmpty()) {
+            // Rejected recipients will not be accepted on a later attempt either
+            OutboxMessage rejected = message.withRecipients(message.id() + "-rejected", invalid);
+            write(deadLetterDir, rejected.failed(e.getMessage(), null));
+            LOG.error("Email '{}' was rejected for {}, moved to {}", message.subject(), invalid, deadLetterDir, e);
+        }
+        if (!sent.isEmpty()) {
+            LOG.info("Email '{}' sent successfully to {}", message.subject(), sent);
+        }
+        if (!unsent.isEmpty()) {
+            retryLater(file, message.withRecipients(message.id(), unsent), e);
+        } else if (!sent.isEmpty()) {
+            markSent(file);
+        } else {
+            delete(file);
+        }
+    }
+
+    private void retryLater(Path file, OutboxMessage message, MessagingException e) {
+        int attempt = message.attempts() + 1;
+        if (isPermanent(e) || attempt >= outboxProperties.getMaxAttempts()) {
+            write(deadLetterDir, message.failed(e.getMessage(), null));
+            delete(file);
+            LOG.error("Giving up on email '{}' to {} after {} attempts, moved to {}", message.subject(), message.to(),
+                    attempt, deadLetterDir, e);
+            return;
+        }
+        Duration backoff = outboxProperties.getInitialBackoff().multipliedBy(1L << Math.min(attempt - 1, 20));
+        if (backoff.compareTo(outboxProperties.getMaxBackoff()) > 0) {
+            backoff = outboxProperties.getMaxBackoff();
+        }
+        write(outboxDir, message.failed(e.getMessage(), Instant.now().plus(backoff)));
+        LOG.warn("Failed to send email '{}' to {} (attempt {}), retrying in {}: {}", message.subject(), message.to(),
+                attempt, backoff, e.getMessage());
+    }
+
+    // SMTP 5xx replies are permanent; retrying the same message will get the same answer
+    private static boolean isPermanent(MessagingException e) {
+        int returnCode = -1;
+        if (e instanceof SMTPSendFailedException sendFailed) {
+            returnCode = sendFailed.getReturnCode();
+        } else if (e instanceof SMTPAddressFailedException addressFailed) {
+            returnCode = addressFailed.getReturnCode();
+        }
+        return returnCode >= 500;
+    }
+
+    private static String join(Address[] addresses) {
+        return addresses == null || addresses.length == 0 ? "" : InternetAddress.toString(addresses);
+    }
+
+    private Transport connectedTransport() throws MessagingException {
+        // isConnected() probes the server with NOOP, so a connection dropped on idle is noticed here
+        if (transport == null || !transport.isConnected()) {
+            closeTransport();
+            transport = mailSession.getTransport("smtp");
+            transport.connect();
+        }
+        return transport;
+    }
+
+    private void closeTransport() {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                LOG.debug("Ignoring error closing SMTP connection: {}", e.getMessage());
+            }
+            transport = null;
+        }
+    }
+
+    // File names start with the enqueue time, so name order is delivery order
+    private List<Path> list(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return new ArrayList<>(files.filter(file -> file.getFileName().toString().endsWith(".json")).sorted().toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + dir, e);
+        }
+    }
+
+    private OutboxMessage read(Path file) {
+        try {
+            return objectMapper.readValue(file.toFile(), OutboxMessage.class);
+        } catch (IOException e) {
+            LOG.error("Skipping unreadable outbox entry {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(Path dir, OutboxMessage message) {
+        try {
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, message.id(), ".tmp");
+            objectMapper.writeValue(temp.toFile(), message);
+            Files.move(temp, dir.resolve(message.id() + ".json"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write outbox entry " + message.id(), e);
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to remove outbox entry " + file, e);
+        }
+    }
+}
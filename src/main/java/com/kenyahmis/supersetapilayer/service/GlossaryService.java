@@ -0,0 +1,185 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.kenyahmis.supersetapilayer.model.GlossaryIndex;
+import com.kenyahmis.supersetapilayer.properties.OpenmetadataApiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+public class GlossaryService {
+    // Above this many changed tables one paged read of the whole glossary is cheaper than reading them one by one
+    private static final int INCREMENTAL_TABLE_LIMIT = 20;
+
+    private final RestClient defaultClient;
+    private final OpenmetadataApiProperties openmetadataApiProperties;
+    private final MetadataCache metadataCache;
+    private final UriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory();
+    private final Logger LOG = LoggerFactory.getLogger(GlossaryService.class);
+
+    public GlossaryService(RestClient defaultClient, OpenmetadataApiProperties openmetadataApiProperties,
+                           MetadataCache metadataCache) {
+        this.defaultClient = defaultClient;
+        this.openmetadataApiProperties = openmetadataApiProperties;
+        this.metadataCache = metadataCache;
+    }
+
+    /**
+     * Loads every term of the configured glossary through the paginated glossaryTerms list endpoint.
+     */
+    public GlossaryIndex loadGlossaryIndex() {
+        final String glossaryName = openmetadataApiProperties.getGlossaryName();
+        final String glossaryId = getGlossaryId(glossaryName);
+        final int limit = openmetadataApiProperties.getGlossaryPageSize();
+        GlossaryIndex index = new GlossaryIndex(glossaryName);
+        String after = null;
+        int pages = 0;
+        do {
+            JsonNode page = after == null
+                    ? get("/api/v1/glossaryTerms?glossary={id}&limit={limit}", glossaryId, limit)
+                    : get("/api/v1/glossaryTerms?glossary={id}&limit={limit}&after={after}", glossaryId, limit, after);
+            pages++;
+            if (page == null) {
+                break;
+            }
+            page.path("data").forEach(term -> addTerm(index, term));
+            JsonNode next = page.path("paging").get("after");
+            after = next == null || next.isNull() ? null : next.textValue();
+        } while (after != null);
+        LOG.info("Loaded {} glossary terms for '{}' in {} pages", index.size(), glossaryName, pages);
+        return index;
+    }
+
+    /**
+     * Loads the terms of the given tables only: each table term and its column terms.
+     */
+    public GlossaryIndex loadGlossaryIndex(Set<String> tableNames) {
+        if (tableNames.size() > INCREMENTAL_TABLE_LIMIT) {
+            return loadGlossaryIndex();
+        }
+        final String glossaryName = openmetadataApiProperties.getGlossaryName();
+        final int limit = openmetadataApiProperties.getGlossaryPageSize();
+        GlossaryIndex index = new GlossaryIndex(glossaryName);
+        for (String tableName : tableNames) {
+            JsonNode tableTerm;
+            try {
+                tableTerm = getCached("/api/v1/glossaryTerms/name/{fqn}", glossaryName + "." + tableName);
+            } catch (HttpClientErrorException.NotFound e) {
+                LOG.info("Glossary term for table {} no longer exists", tableName);
+                continue;
+            }
+            if (tableTerm == null || !tableTerm.hasNonNull("id")) {
+                continue;
+            }
+            addTerm(index, tableTerm);
+            String after = null;
+            do {
+                JsonNode page = after == null
+                        ? get("/api/v1/glossaryTerms?parent={id}&limit={limit}", tableTerm.get("id").textValue(), limit)
+                        : get("/api/v1/glossaryTerms?parent={id}&limit={limit}&after={after}",
+                        tableTerm.get("id").textValue(), limit, after);
+                if (page == null) {
+                    break;
+                }
+                page.path("data").forEach(term -> addTerm(index, term));
+                JsonNode next = page.path("paging").get("after");
+                after = next == null || next.isNull() ? null : next.textValue();
+            } while (after != null);
+        }
+        LOG.info("Loaded {} glossary terms for {} changed tables", index.size(), tableNames.size());
+        return index;
+    }
+
+    /**
+     * Reads the glossary term change events since {@code since} and returns the tables they touch. Returns empty
+     * when the events feed cannot be trusted to be complete, i.e. when the cursor is older than OpenMetadata keeps
+     * events or the feed is unavailable, in which case a full sync is needed.
+     */
+    public Optional<Set<String>> getChangedTables(Instant since) {
+        if (since.isBefore(Instant.now().minus(openmetadataApiProperties.getEventsMaxAge()))) {
+            LOG.info("Glossary event cursor {} is older than {}", since, openmetadataApiProperties.getEventsMaxAge());
+            return Optional.empty();
+        }
+        JsonNode events;
+        try {
+            events = get("/api/v1/events?entityCreated={type}&entityUpdated={type}&entityDeleted={type}&timestamp={since}",
+                    Map.of("type", "glossaryTerm", "since", since.toEpochMilli()));
+        } catch (HttpClientErrorException e) {
+            LOG.warn("OpenMetadata events feed unavailable: {}", e.getMessage());
+            return Optional.empty();
+        }
+        final String glossaryName = openmetadataApiProperties.getGlossaryName();
+        Set<String> tables = new HashSet<>();
+        int count = 0;
+        for (JsonNode event : events == null ? List.<JsonNode>of() : events.path("data")) {
+            count++;
+            String tableName = GlossaryIndex.getTableName(glossaryName,
+                    event.path("entityFullyQualifiedName").textValue());
+            if (tableName != null) {
+                tables.add(tableName);
+            }
+        }
+        LOG.info("{} glossary term events since {} touch {} tables", count, since, tables.size());
+        return Optional.of(tables);
+    }
+
+    private static void addTerm(GlossaryIndex index, JsonNode term) {
+        JsonNode description = term.get("description");
+        if (term.hasNonNull("fullyQualifiedName") && description != null && !description.isNull()) {
+            index.put(term.get("fullyQualifiedName").textValue(), description.textValue());
+        }
+    }
+
+    private String getGlossaryId(String glossaryName) {
+        JsonNode glossary = getCached("/api/v1/glossaries/name/{name}", glossaryName);
+        if (glossary == null || !glossary.hasNonNull("id")) {
+            throw new IllegalStateException(String.format("Glossary '%s' not found in OpenMetadata", glossaryName));
+        }
+        return glossary.get("id").textValue();
+    }
+
+    private JsonNode get(String path, Object... uriVariables) {
+        return defaultClient.get()
+                .uri(baseUrl() + path, uriVariables)
+                .header("Authorization", "Bearer " + openmetadataApiProperties.getJwtToken())
+                .retrieve()
+                .body(JsonNode.class);
+    }
+
+    // Single entity documents are revalidated through the metadata cache; paged listings change with every edit
+    private JsonNode getCached(String path, Object... uriVariables) {
+        URI uri = uriBuilderFactory.expand(baseUrl() + path, uriVariables);
+        return metadataCache.get("glossary", uri.toString(), validators -> defaultClient.get()
+                .uri(uri)
+                .header("Authorization", "Bearer " + openmetadataApiProperties.getJwtToken())
+                .headers(headers -> headers.addAll(validators))
+                .exchange((request, response) -> MetadataCache.fetched(response, ok -> response.bodyTo(JsonNode.class))));
+    }
+
+    private JsonNode get(String path, Map<String, ?> uriVariables) {
+        return defaultClient.get()
+                .uri(baseUrl() + path, uriVariables)
+                .header("Authorization", "Bearer " + openmetadataApiProperties.getJwtToken())
+                .retrieve()
+                .body(JsonNode.class);
+    }
+
+    // The base URL is normally a bare host reached over https; a scheme may be given, e.g. for a local stub
+    private String baseUrl() {
+        String baseUrl = openmetadataApiProperties.getBaseUrl();
+        return baseUrl.contains("://") ? baseUrl : String.format("https://%s", baseUrl);
+    }
+}
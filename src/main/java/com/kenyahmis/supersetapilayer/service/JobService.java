@@ -0,0 +1,142 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.model.Job;
+import com.kenyahmis.supersetapilayer.model.JobProgress;
+import com.kenyahmis.supersetapilayer.properties.JobProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs operations in the background and tracks them as jobs. Submitting an operation while an identical one
+ * is still queued or running returns the existing job instead of starting a second run.
+ */
+@Service
+public class JobService {
+    private final ExecutorService jobExecutor;
+    private final int retainedJobs;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private final Map<String, Job> activeJobs = new HashMap<>();
+    private final Map<String, Future<?>> runningTasks = new HashMap<>();
+    private final Logger LOG = LoggerFactory.getLogger(JobService.class);
+
+    public JobService(JobProperties jobProperties, OutboundMetrics outboundMetrics) {
+        this.meterRegistry = outboundMetrics.getMeterRegistry();
+        this.jobExecutor = Executors.newFixedThreadPool(jobProperties.getMaxConcurrent());
+        this.retainedJobs = jobProperties.getRetainedJobs();
+    }
+
+    public synchronized Job submit(String operation, Function<JobProgress, Object> work) {
+        Job active = activeJobs.get(operation);
+        if (active != null) {
+            LOG.info("Attaching to running {} job {}", operation, active.getId());
+            return active;
+        }
+        Job job = new Job(UUID.randomUUID().toString(), operation);
+        jobs.put(job.getId(), job);
+        activeJobs.put(operation, job);
+        runningTasks.put(job.getId(), jobExecutor.submit(() -> run(job, work)));
+        evictFinishedJobs();
+        return job;
+    }
+
+    public synchronized Optional<Job> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public synchronized List<Job> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    public synchronized Optional<Job> cancel(String id) {
+        Job job = jobs.get(id);
+        if (job != null && !job.isFinished()) {
+            job.requestCancel();
+            Future<?> task = runningTasks.get(id);
+            // A worker may already hold the task without having started the job; cancelIfQueued and start
+            // decide under the job's lock which of the two wins
+            if (job.cancelIfQueued()) {
+                activeJobs.remove(job.getOperation(), job);
+                runningTasks.remove(id);
+                if (task != null) {
+                    task.cancel(false);
+                }
+            } else if (task != null) {
+                task.cancel(true);
+            }
+            LOG.info("Cancellation requested for {} job {}", job.getOperation(), id);
+        }
+        return Optional.ofNullable(job);
+    }
+
+    private void run(Job job, Function<JobProgress, Object> work) {
+        if (!job.start()) {
+            return;
+        }
+        LOG.info("Started {} job {}", job.getOperation(), job.getId());
+        try {
+            Object result = work.apply(job);
+            job.finish(job.isCancelled() ? Job.JobStatus.CANCELLED : Job.JobStatus.SUCCEEDED, result, null);
+        } catch (RuntimeException e) {
+            LOG.error("{} job {} failed", job.getOperation(), job.getId(), e);
+            job.finish(job.isCancelled() ? Job.JobStatus.CANCELLED : Job.JobStatus.FAILED, null,
+                    String.valueOf(e.getMessage()));
+        } finally {
+            completed(job);
+        }
+        LOG.info("{} job {} finished as {} in {} ms", job.getOperation(), job.getId(), job.getStatus(),
+                job.getElapsedMillis());
+        recordMetrics(job);
+    }
+
+    private synchronized void completed(Job job) {
+        activeJobs.remove(job.getOperation(), job);
+        runningTasks.remove(job.getId());
+        // Clear any interrupt left by a cancellation before the pool thread is reused
+        Thread.interrupted();
+    }
+
+    private void recordMetrics(Job job) {
+        Timer.builder("operations.duration")
+                .tag("operation", job.getOperation())
+                .tag("status", job.getStatus().name())
+                .register(meterRegistry)
+                .record(Duration.ofMillis(job.getElapsedMillis()));
+        meterRegistry.counter("operations.items", "operation", job.getOperation(), "outcome", "done")
+                .increment(job.getDone());
+        meterRegistry.counter("operations.items", "operation", job.getOperation(), "outcome", "failed")
+                .increment(job.getFailed());
+    }
+
+    private void evictFinishedJobs() {
+        var iterator = jobs.values().iterator();
+        while (jobs.size() > retainedJobs && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+}
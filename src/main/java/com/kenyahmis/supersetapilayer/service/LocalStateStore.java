@@ -0,0 +1,70 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.properties.StorageProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Supplier;
+
+/**
+ * Small JSON documents persisted under the application's data directory, used to carry state such as
+ * fingerprints and watermarks from one run to the next.
+ */
+@Service
+public class LocalStateStore {
+    private final ObjectMapper objectMapper;
+    private final Path dataDir;
+    private final Logger LOG = LoggerFactory.getLogger(LocalStateStore.class);
+
+    @Autowired
+    public LocalStateStore(ObjectMapper objectMapper, StorageProperties storageProperties) {
+        this(objectMapper, Path.of(storageProperties.getDataDir()));
+    }
+
+    public LocalStateStore(ObjectMapper objectMapper, Path dataDir) {
+        this.objectMapper = objectMapper;
+        this.dataDir = dataDir;
+    }
+
+    public <T> T read(String name, TypeReference<T> type, Supplier<T> defaultValue) {
+        Path file = resolve(name);
+        if (!Files.exists(file)) {
+            return defaultValue.get();
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), type);
+        } catch (IOException e) {
+            LOG.warn("Discarding unreadable state file {}: {}", file, e.getMessage());
+            return defaultValue.get();
+        }
+    }
+
+    public synchronized void write(String name, Object value) {
+        Path file = resolve(name);
+        try {
+            Files.createDirectories(dataDir);
+            Path temp = Files.createTempFile(dataDir, name, ".tmp");
+            objectMapper.writeValue(temp.toFile(), value);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write state file " + file, e);
+        }
+    }
+
+    public Path getDataDir() {
+        return dataDir;
+    }
+
+    private Path resolve(String name) {
+        return dataDir.resolve(name + ".json");
+    }
+}
@@ -0,0 +1,171 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.properties.MetadataCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResponseErrorHandler;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of parsed metadata documents keyed by request URI. Entries younger than {@code freshFor} are
+ * served as they are, which also shares documents between the steps of one run; older entries are revalidated
+ * with {@code If-None-Match}/{@code If-Modified-Since} when the server sent validators, so a 304 reuses the
+ * parsed value. Concurrent loads of the same URI share one request. Least recently used entries are evicted
+ * beyond {@code maxEntries} and every entry is dropped after {@code expireAfter}.
+ */
+@Service
+public class MetadataCache {
+    private static final ResponseErrorHandler ERROR_HANDLER = new DefaultResponseErrorHandler();
+
+    private final MetadataCacheProperties metadataCacheProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Entry> entries;
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public MetadataCache(MetadataCacheProperties metadataCacheProperties, OutboundMetrics outboundMetrics) {
+        this.metadataCacheProperties = metadataCacheProperties;
+        this.meterRegistry = outboundMetrics.getMeterRegistry();
+        final int maxEntries = metadataCacheProperties.getMaxEntries();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        Gauge.builder("metadata.cache.entries", this, MetadataCache::size)
+                .description("Metadata documents held in the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached value for {@code uri} or loads it. The loader must send the given validator headers and
+     * return {@link #fetched} of the response.
+     *
+     * @param cache name used to tag the hit ratio metrics
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cache, String uri, Loader<T> loader) {
+        if (!metadataCacheProperties.isEnabled()) {
+            return loader.load(new HttpHeaders()).value();
+        }
+        Entry entry = lookup(uri);
+        if (entry != null && entry.validatedAt().plus(metadataCacheProperties.getFreshFor()).isAfter(Instant.now())) {
+            count(cache, "hit");
+            return (T) entry.value();
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inProgress = loading.putIfAbsent(uri, load);
+        if (inProgress != null) {
+            count(cache, "shared");
+            try {
+                return (T) inProgress.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+        try {
+            T value = load(cache, uri, entry, loader);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(uri, load);
+        }
+    }
+
+    public synchronized void invalidate(String uri) {
+        entries.remove(uri);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private <T> T load(String cache, String uri, Entry entry, Loader<T> loader) {
+        HttpHeaders validators = new HttpHeaders();
+        if (entry != null && entry.etag() != null) {
+            validators.setIfNoneMatch(entry.etag());
+        } else if (entry != null && entry.lastModified() > 0) {
+            validators.setIfModifiedSince(entry.lastModified());
+        }
+        Fetched<T> fetched = loader.load(validators);
+        if (fetched.notModified() && entry != null) {
+            count(cache, "revalidated");
+            store(uri, new Entry(entry.value(), entry.etag(), entry.lastModified(), Instant.now()));
+            @SuppressWarnings("unchecked")
+            T value = (T) entry.value();
+            return value;
+        }
+        count(cache, "miss");
+        store(uri, new Entry(fetched.value(), fetched.etag(), fetched.lastModified(), Instant.now()));
+        return fetched.value();
+    }
+
+    private synchronized Entry lookup(String uri) {
+        Entry entry = entries.get(uri);
+        if (entry != null && entry.validatedAt().plus(metadataCacheProperties.getExpireAfter()).isBefore(Instant.now())) {
+            entries.remove(uri);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void store(String uri, Entry entry) {
+        entries.put(uri, entry);
+    }
+
+    private void count(String cache, String result) {
+        counters.computeIfAbsent(cache + ":" + result, key -> Counter.builder("metadata.cache.requests")
+                .description("Metadata cache lookups by outcome")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * Turns a response into a cache load result: a 304 reuses the cached value, errors are raised as for
+     * {@code retrieve()}, and anything else is parsed by {@code reader} along with its validators.
+     */
+    public static <T> Fetched<T> fetched(ClientHttpResponse response, ResponseReader<T> reader) throws IOException {
+        if (response.getStatusCode().value() == 304) {
+            return new Fetched<>(null, null, -1, true);
+        }
+        if (ERROR_HANDLER.hasError(response)) {
+            ERROR_HANDLER.handleError(response);
+        }
+        HttpHeaders headers = response.getHeaders();
+        return new Fetched<>(reader.read(response), headers.getETag(), headers.getLastModified(), false);
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        Fetched<T> load(HttpHeaders validators);
+    }
+
+    @FunctionalInterface
+    public interface ResponseReader<T> {
+        T read(ClientHttpResponse response) throws IOException;
+    }
+
+    public record Fetched<T>(T value, String etag, long lastModified, boolean notModified) {
+    }
+
+    private record Entry(Object value, String etag, long lastModified, Instant validatedAt) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+
+/**
+ * Lazily walks a paginated Superset list endpoint ({@code {"count": n, "result": [...]}}), fetching page
+ * N+1 in the background while page N is consumed. At most the current and the next page are held.
+ */
+public class PagedResultIterator implements Iterator<JsonNode> {
+    private final IntFunction<JsonNode> pageFetcher;
+    private final Executor prefetchExecutor;
+    private Iterator<JsonNode> current = Collections.emptyIterator();
+    private CompletableFuture<JsonNode> nextPage;
+    private int nextPageNumber;
+    private long fetched;
+    private long count = -1;
+    private boolean started;
+
+    public PagedResultIterator(IntFunction<JsonNode> pageFetcher, Executor prefetchExecutor) {
+        this.pageFetcher = pageFetcher;
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            nextPage = CompletableFuture.completedFuture(pageFetcher.apply(nextPageNumber));
+        }
+        while (!current.hasNext()) {
+            if (nextPage == null) {
+                return false;
+            }
+            advance(await(nextPage));
+        }
+        return true;
+    }
+
+    @Override
+    public JsonNode next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    private void advance(JsonNode page) {
+        JsonNode results = page == null ? null : page.get("result");
+        if (results == null || results.isEmpty()) {
+            current = Collections.emptyIterator();
+            nextPage = null;
+            return;
+        }
+        fetched += results.size();
+        nextPageNumber++;
+        count = page.path("count").asLong(fetched);
+        if (fetched < count) {
+            final int pageNumber = nextPageNumber;
+            nextPage = CompletableFuture.supplyAsync(() -> pageFetcher.apply(pageNumber), prefetchExecutor);
+        } else {
+            nextPage = null;
+        }
+        current = results.iterator();
+    }
+
+    /**
+     * Total number of items reported by the endpoint, or -1 before the first page has been read.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    private static JsonNode await(CompletableFuture<JsonNode> page) {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.model.ColumnSchema;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import com.kenyahmis.supersetapilayer.model.TableActivity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+public class ReportingSchemaLoader {
+    private final JdbcTemplate mssqlJdbcTemplate;
+    private final OutboundMetrics outboundMetrics;
+    private final Logger LOG = LoggerFactory.getLogger(ReportingSchemaLoader.class);
+    private static final String FETCH_REPORTING_SCHEMA_QUERY = """
+            SELECT t.[name] AS table_name, c.[name] AS column_name, c.column_id, ty.[name] AS data_type, c.is_nullable
+            FROM sys.tables t
+            LEFT JOIN sys.columns c ON c.object_id = t.object_id
+            LEFT JOIN sys.types ty ON ty.user_type_id = c.user_type_id
+            ORDER BY t.[name], c.column_id
+            """;
+    // Usage stats are only kept since the last server restart, so row counts back them up as a change signal
+    private static final String FETCH_TABLE_ACTIVITY_QUERY = """
+            SELECT SCHEMA_NAME(t.schema_id) AS schema_name, t.[name] AS table_name, t.modify_date, u.last_user_update,
+                   p.row_count
+            FROM sys.tables t
+            LEFT JOIN (SELECT object_id, MAX(last_user_update) AS last_user_update
+                       FROM sys.dm_db_index_usage_stats
+                       WHERE database_id = DB_ID()
+                       GROUP BY object_id) u ON u.object_id = t.object_id
+            LEFT JOIN (SELECT object_id, SUM(row_count) AS row_count
+                       FROM sys.dm_db_partition_stats
+                       WHERE index_id IN (0, 1)
+                       GROUP BY object_id) p ON p.object_id = t.object_id
+            """;
+
+    public ReportingSchemaLoader(JdbcTemplate mssqlJdbcTemplate, OutboundMetrics outboundMetrics) {
+        this.mssqlJdbcTemplate = mssqlJdbcTemplate;
+        this.outboundMetrics = outboundMetrics;
+    }
+
+    /**
+     * Reads every table of the reporting database with its columns in a single round trip.
+     */
+    public SchemaSnapshot load() {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        outboundMetrics.record(OutboundMetrics.REPORTING_DB, "schema-snapshot", () -> {
+            mssqlJdbcTemplate.query(FETCH_REPORTING_SCHEMA_QUERY, rs -> {
+                String tableName = rs.getString("table_name");
+                String columnName = rs.getString("column_name");
+                if (columnName == null) {
+                    snapshot.addTable(tableName);
+                } else {
+                    snapshot.addColumn(tableName, new ColumnSchema(columnName, rs.getString("data_type"),
+                            rs.getInt("column_id"), rs.getBoolean("is_nullable")));
+                }
+            });
+            return snapshot;
+        });
+        LOG.info("Fetched {} tables with {} columns from reporting database", snapshot.getTableCount(),
+                snapshot.getColumnCount());
+        return snapshot;
+    }
+
+    /**
+     * Reads the last DDL change, last write and row count of every reporting table in a single round trip,
+     * keyed by {@link TableActivity#qualifiedName schema and table name}.
+     */
+    public Map<String, TableActivity> loadTableActivity() {
+        Map<String, TableActivity> activity = new HashMap<>();
+        outboundMetrics.record(OutboundMetrics.REPORTING_DB, "table-activity", () -> {
+            mssqlJdbcTemplate.query(FETCH_TABLE_ACTIVITY_QUERY, rs -> {
+                Timestamp modified = latest(rs.getTimestamp("modify_date"), rs.getTimestamp("last_user_update"));
+                String schemaName = rs.getString("schema_name");
+                String tableName = rs.getString("table_name");
+                activity.put(TableActivity.qualifiedName(schemaName, tableName), new TableActivity(schemaName,
+                        tableName, modified == null ? null : modified.toInstant(), rs.getLong("row_count")));
+            });
+            return activity;
+        });
+        LOG.info("Fetched change activity for {} reporting tables", activity.size());
+        return activity;
+    }
+
+    private static Timestamp latest(Timestamp a, Timestamp b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        return a.after(b) ? a : b;
+    }
+}
@@ -0,0 +1,258 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.kenyahmis.supersetapilayer.model.RlsProvisioningSummary;
+import com.kenyahmis.supersetapilayer.model.RlsRule;
+import com.kenyahmis.supersetapilayer.properties.RlsProperties;
+import com.kenyahmis.supersetapilayer.properties.RlsRuleProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps Superset's row level security rules in line with the rules configured under {@code rls.rules}. Each
+ * configured rule becomes one Superset rule covering every dataset whose table name matches it. The existing
+ * rules and roles are read once, compared in memory, and only rules that differ are created, updated or, for
+ * managed rules no longer configured, deleted in a single request. A configured rule that matches no dataset is
+ * left as it is in Superset, since an empty match is more likely a listing problem than an intended change.
+ */
+@Service
+public class RlsProvisioningService {
+    private final RestClient defaultClient;
+    private final SupersetApiProperties supersetApiProperties;
+    private final SupersetTokenManager supersetTokenManager;
+    private final RlsProperties rlsProperties;
+    private final Logger LOG = LoggerFactory.getLogger(RlsProvisioningService.class);
+
+    public RlsProvisioningService(RestClient defaultClient, SupersetApiProperties supersetApiProperties,
+                                  SupersetTokenManager supersetTokenManager, RlsProperties rlsProperties) {
+        this.defaultClient = defaultClient;
+        this.supersetApiProperties = supersetApiProperties;
+        this.supersetTokenManager = supersetTokenManager;
+        this.rlsProperties = rlsProperties;
+    }
+
+    public boolean isEnabled() {
+        return rlsProperties.isEnabled();
+    }
+
+    /**
+     * @param datasets Superset dataset ids and their table names
+     */
+    public RlsProvisioningSummary provision(Map<Integer, String> datasets) {
+        final long start = System.nanoTime();
+        Map<String, Integer> roles = getRoles();
+        Set<String> unknownRoles = new TreeSet<>();
+        List<RlsRule> desired = desiredRules(rlsProperties.getRules(), rlsProperties.getNamePrefix(), datasets, roles,
+                unknownRoles);
+        if (!unknownRoles.isEmpty()) {
+            LOG.warn("Row level security roles not found in Superset: {}", unknownRoles);
+        }
+        RlsPlan plan = plan(desired, getRules(), rlsProperties.getNamePrefix());
+        if (!plan.matchedNothing().isEmpty()) {
+            LOG.warn("Row level security rules match no dataset and were left unchanged: {}", plan.matchedNothing());
+        }
+        int failed = 0;
+        for (RlsRule rule : plan.create()) {
+            failed += apply("create", rule, () -> send(rule, null));
+        }
+        for (RlsRule rule : plan.update()) {
+            failed += apply("update", rule, () -> send(rule, rule.id()));
+        }
+        if (!plan.delete().isEmpty()) {
+            try {
+                delete(plan.delete());
+            } catch (RestClientException e) {
+                failed += plan.delete().size();
+                LOG.error("Failed to delete row level security rules {}", plan.delete(), e);
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        RlsProvisioningSummary summary = new RlsProvisioningSummary(plan.create().size(), plan.update().size(),
+                plan.delete().size(), plan.unchanged(), failed, List.copyOf(unknownRoles), elapsedMillis);
+        LOG.info("Row level security provisioned in {} ms: {} created, {} updated, {} deleted, {} unchanged, {} failed",
+                elapsedMillis, summary.created(), summary.updated(), summary.deleted(), summary.unchanged(), failed);
+        return summary;
+    }
+
+    static List<RlsRule> desiredRules(List<RlsRuleProperties> configured, String namePrefix,
+                                      Map<Integer, String> datasets, Map<String, Integer> roles,
+                                      Set<String> unknownRoles) {
+        List<RlsRule> desired = new ArrayList<>();
+        for (RlsRuleProperties rule : configured) {
+            Pattern tablePattern = Pattern.compile(rule.getTables());
+            Set<Integer> tables = datasets.entrySet().stream()
+                    .filter(dataset -> dataset.getValue() != null && tablePattern.matcher(dataset.getValue()).matches())
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toCollection(TreeSet::new));
+            Set<Integer> roleIds = new TreeSet<>();
+            for (String role : rule.getRoles()) {
+                Integer roleId = roles.get(role);
+                if (roleId == null) {
+                    unknownRoles.add(role);
+                } else {
+                    roleIds.add(roleId);
+                }
+            }
+            desired.add(new RlsRule(null, namePrefix + rule.getName(), rule.getDescription(), rule.getFilterType(),
+                    tables, roleIds, rule.getClause(), rule.getGroupKey()));
+        }
+        return desired;
+    }
+
+    /**
+     * Compares the configured rules with the ones in Superset by name. Rules outside the managed name prefix are
+     * never touched. Superset rules need at least one table, so a configured rule that matches no dataset is
+     * neither created nor updated, and an existing rule of that name is kept rather than deleted.
+     */
+    static RlsPlan plan(List<RlsRule> desired, List<RlsRule> existing, String namePrefix) {
+        Map<String, RlsRule> existingByName = new HashMap<>();
+        for (RlsRule rule : existing) {
+            if (rule.name() != null && rule.name().startsWith(namePrefix)) {
+                existingByName.put(rule.name(), rule);
+            }
+        }
+        List<RlsRule> create = new ArrayList<>();
+        List<RlsRule> update = new ArrayList<>();
+        List<String> matchedNothing = new ArrayList<>();
+        int unchanged = 0;
+        for (RlsRule rule : desired) {
+            RlsRule current = existingByName.remove(rule.name());
+            if (rule.tables().isEmpty()) {
+                matchedNothing.add(rule.name());
+                continue;
+            }
+            if (current == null) {
+                create.add(rule);
+            } else if (sameDefinition(rule, current)) {
+                unchanged++;
+            } else {
+                update.add(rule.withId(current.id()));
+            }
+        }
+        List<Integer> delete = existingByName.values().stream().map(RlsRule::id).sorted().toList();
+        return new RlsPlan(create, update, delete, unchanged, matchedNothing);
+    }
+
+    private static boolean sameDefinition(RlsRule a, RlsRule b) {
+        return a.tables().equals(b.tables()) && a.roles().equals(b.roles())
+                && Objects.equals(a.filterType(), b.filterType())
+                && Objects.equals(blankToNull(a.clause()), blankToNull(b.clause()))
+                && Objects.equals(blankToNull(a.groupKey()), blankToNull(b.groupKey()))
+                && Objects.equals(blankToNull(a.description()), blankToNull(b.description()));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private int apply(String action, RlsRule rule, Runnable request) {
+        try {
+            request.run();
+            LOG.info("Row level security rule {} {}d for {} datasets and {} roles", rule.name(), action,
+                    rule.tables().size(), rule.roles().size());
+            return 0;
+        } catch (RestClientException e) {
+            LOG.error("Failed to {} row level security rule {}", action, rule.name(), e);
+            return 1;
+        }
+    }
+
+    private void send(RlsRule rule, Integer id) {
+        final String host = supersetApiProperties.getBaseUrl();
+        ObjectNode body = JsonNodeFactory.instance.objectNode()
+                .put("name", rule.name())
+                .put("description", rule.description())
+                .put("filter_type", rule.filterType())
+                .put("clause", rule.clause())
+                .put("group_key", rule.groupKey());
+        rule.tables().forEach(body.putArray("tables")::add);
+        rule.roles().forEach(body.putArray("roles")::add);
+        supersetTokenManager.withAccessToken(token -> (id == null
+                ? defaultClient.post().uri(String.format("%s/api/v1/rowlevelsecurity/", host))
+                : defaultClient.put().uri(String.format("%s/api/v1/rowlevelsecurity/%d", host, id)))
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body)
+                .retrieve()
+                .toBodilessEntity());
+    }
+
+    private void delete(List<Integer> ids) {
+        final String uri = String.format("%s/api/v1/rowlevelsecurity/?q=!(%s)", supersetApiProperties.getBaseUrl(),
+                ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        supersetTokenManager.withAccessToken(token -> defaultClient.delete()
+                .uri(uri)
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .toBodilessEntity());
+        LOG.info("Deleted {} row level security rules no longer configured", ids.size());
+    }
+
+    private List<RlsRule> getRules() {
+        List<RlsRule> rules = new ArrayList<>();
+        Iterator<JsonNode> results = pages("/api/v1/rowlevelsecurity/?q=(page:%d,page_size:%d)");
+        while (results.hasNext()) {
+            JsonNode rule = results.next();
+            rules.add(new RlsRule(rule.get("id").intValue(), rule.path("name").textValue(),
+                    rule.path("description").textValue(), rule.path("filter_type").textValue(),
+                    ids(rule.path("tables"), "id"), ids(rule.path("roles"), "id"), rule.path("clause").textValue(),
+                    rule.path("group_key").textValue()));
+        }
+        return rules;
+    }
+
+    // The related endpoint lists roles as {"value": id, "text": name}
+    private Map<String, Integer> getRoles() {
+        Map<String, Integer> roles = new HashMap<>();
+        Iterator<JsonNode> results = pages("/api/v1/rowlevelsecurity/related/roles?q=(page:%d,page_size:%d)");
+        while (results.hasNext()) {
+            JsonNode role = results.next();
+            roles.put(role.path("text").textValue(), role.path("value").intValue());
+        }
+        return roles;
+    }
+
+    private static Set<Integer> ids(JsonNode items, String field) {
+        Set<Integer> ids = new TreeSet<>();
+        items.forEach(item -> ids.add(item.isInt() ? item.intValue() : item.path(field).intValue()));
+        return ids;
+    }
+
+    private Iterator<JsonNode> pages(String pathFormat) {
+        final String host = supersetApiProperties.getBaseUrl();
+        final int pageSize = rlsProperties.getPageSize();
+        IntFunction<JsonNode> pageFetcher = page -> {
+            String uri = host + String.format(pathFormat, page, pageSize);
+            return supersetTokenManager.withAccessToken(token -> defaultClient.get()
+                    .uri(uri)
+                    .header("Authorization", "Bearer " + token)
+                    .retrieve()
+                    .body(JsonNode.class));
+        };
+        return new PagedResultIterator(pageFetcher, Runnable::run);
+    }
+
+    record RlsPlan(List<RlsRule> create, List<RlsRule> update, List<Integer> delete, int unchanged,
+                   List<String> matchedNothing) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.model.ColumnSchema;
+import com.kenyahmis.supersetapilayer.model.SchemaDiff;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class SchemaDiffEngine {
+    // SQL Server and SQLAlchemy spell some types differently
+    private static final Map<String, String> TYPE_ALIASES = Map.of("INT", "INTEGER");
+
+    /**
+     * Compares {@code source} against {@code target}: tables and columns only in the source are reported as added,
+     * those only in the target as removed. Types and nullability are compared where both sides report them.
+     */
+    public SchemaDiff diff(SchemaSnapshot source, SchemaSnapshot target, Set<String> ignoredTables) {
+        List<String> addedTables = new ArrayList<>();
+        List<SchemaDiff.TableDiff> changedTables = new ArrayList<>();
+        for (String table : source.getTableNames()) {
+            if (ignoredTables.contains(table)) {
+                continue;
+            }
+            if (!target.containsTable(table)) {
+                addedTables.add(table);
+                continue;
+            }
+            SchemaDiff.TableDiff tableDiff = diffTable(table, source.getColumns(table), target.getColumns(table));
+            if (tableDiff != null) {
+                changedTables.add(tableDiff);
+            }
+        }
+        List<String> removedTables = new ArrayList<>();
+        for (String table : target.getTableNames()) {
+            if (!ignoredTables.contains(table) && !source.containsTable(table)) {
+                removedTables.add(table);
+            }
+        }
+        return new SchemaDiff(addedTables, removedTables, changedTables);
+    }
+
+    public String formatChangeLog(SchemaDiff diff) {
+        StringBuilder changelogBuilder = new StringBuilder();
+        if (!diff.addedTables().isEmpty()) {
+            changelogBuilder.append("New Datasets: \n");
+            changelogBuilder.append(Arrays.toString(diff.addedTables().toArray())).append("\n\n");
+        }
+        if (!diff.removedTables().isEmpty()) {
+            changelogBuilder.append("Removed Datasets: \n");
+            changelogBuilder.append(Arrays.toString(diff.removedTables().toArray())).append("\n\n");
+        }
+        for (SchemaDiff.TableDiff table : diff.changedTables()) {
+            if (!table.addedColumns().isEmpty()) {
+                changelogBuilder.append("- New columns in ").append(table.table()).append(": ").append(Arrays.toString(table.addedColumns().toArray())).append("\n");
+            }
+            if (!table.removedColumns().isEmpty()) {
+                changelogBuilder.append("- Deleted columns in ").append(table.table()).append(": ").append(Arrays.toString(table.removedColumns().toArray())).append("\n");
+            }
+            if (!table.changedColumns().isEmpty()) {
+                changelogBuilder.append("- Changed columns in ").append(table.table()).append(": ");
+                List<String> changes = new ArrayList<>(table.changedColumns().size());
+                for (SchemaDiff.ColumnChange change : table.changedColumns()) {
+                    changes.add(describe(change));
+                }
+                changelogBuilder.append(Arrays.toString(changes.toArray())).append("\n");
+            }
+        }
+        return changelogBuilder.toString();
+    }
+
+    /**
+     * Elements of {@code source} that are not in {@code target}, in source order.
+     */
+    public static List<String> difference(Collection<String> source, Collection<String> target) {
+        Set<String> targetSet = target instanceof Set<String> set ? set : new HashSet<>(target);
+        return source.stream().filter(element -> !targetSet.contains(element)).toList();
+    }
+
+    private SchemaDiff.TableDiff diffTable(String table, Map<String, ColumnSchema> sourceColumns,
+                                           Map<String, ColumnSchema> targetColumns) {
+        List<String> addedColumns = new ArrayList<>();
+        List<SchemaDiff.ColumnChange> changedColumns = new ArrayList<>();
+        for (ColumnSchema column : sourceColumns.values()) {
+            ColumnSchema previous = targetColumns.get(column.name());
+            if (previous == null) {
+                addedColumns.add(column.name());
+            } else if (isChanged(previous, column)) {
+                changedColumns.add(new SchemaDiff.ColumnChange(column.name(), previous.dataType(), column.dataType(),
+                        previous.nullable(), column.nullable()));
+            }
+        }
+        List<String> removedColumns = new ArrayList<>();
+        for (String column : targetColumns.keySet()) {
+            if (!sourceColumns.containsKey(column)) {
+                removedColumns.add(column);
+            }
+        }
+        if (addedColumns.isEmpty() && removedColumns.isEmpty() && changedColumns.isEmpty()) {
+            return null;
+        }
+        return new SchemaDiff.TableDiff(table, addedColumns, removedColumns, changedColumns);
+    }
+
+    private boolean isChanged(ColumnSchema previous, ColumnSchema current) {
+        return isTypeChanged(previous.dataType(), current.dataType())
+                || isNullabilityChanged(previous.nullable(), current.nullable());
+    }
+
+    private static boolean isTypeChanged(String previousType, String currentType) {
+        return previousType != null && currentType != null
+                && !normalizeType(previousType).equals(normalizeType(currentType));
+    }
+
+    private static boolean isNullabilityChanged(Boolean previousNullable, Boolean currentNullable) {
+        return previousNullable != null && currentNullable != null && !previousNullable.equals(currentNullable);
+    }
+
+    private static String normalizeType(String dataType) {
+        String baseType = dataType.trim().toUpperCase(Locale.ROOT);
+        int end = 0;
+        while (end < baseType.length() && (Character.isLetterOrDigit(baseType.charAt(end)) || baseType.charAt(end) == '_')) {
+            end++;
+        }
+        baseType = baseType.substring(0, end);
+        return TYPE_ALIASES.getOrDefault(baseType, baseType);
+    }
+
+    private static String describe(SchemaDiff.ColumnChange change) {
+        StringBuilder description = new StringBuilder(change.column()).append(" (");
+        if (isTypeChanged(change.previousType(), change.currentType())) {
+            description.append(change.previousType()).append(" -> ").append(change.currentType());
+        }
+        if (isNullabilityChanged(change.previousNullable(), change.currentNullable())) {
+            if (description.charAt(description.length() - 1) != '(') {
+                description.append(", ");
+            }
+            description.append(Boolean.TRUE.equals(change.currentNullable()) ? "now nullable" : "now not null");
+        }
+        return description.append(")").toString();
+    }
+}
@@ -0,0 +1,226 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.kenyahmis.supersetapilayer.model.ColumnSchema;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import com.kenyahmis.supersetapilayer.model.SnapshotInfo;
+import com.kenyahmis.supersetapilayer.properties.StorageProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps gzip-compressed reporting schema snapshots under {@code <data-dir>/snapshots}, one file per run, named
+ * by the epoch millisecond the snapshot was taken plus a {@code -<n>} suffix when an earlier snapshot was taken in
+ * the same millisecond. Columns are stored as {@code [name, type, ordinal, nullable]}
+ * arrays to keep files small.
+ */
+@Service
+public class SchemaSnapshotStore {
+    private static final String PREFIX = "schema-";
+    private static final String SUFFIX = ".json.gz";
+    // Always keep enough history to diff against the previous run, whatever the retention window
+    private static final int MIN_RETAINED = 2;
+    private static final Pattern ID = Pattern.compile("\\d+(-\\d+)?");
+
+    private final Path snapshotDir;
+    private final Duration retention;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Logger LOG = LoggerFactory.getLogger(SchemaSnapshotStore.class);
+
+    @Autowired
+    public SchemaSnapshotStore(StorageProperties storageProperties) {
+        this(Path.of(storageProperties.getDataDir()).resolve("snapshots"), storageProperties.getSnapshotRetention());
+    }
+
+    public SchemaSnapshotStore(Path snapshotDir, Duration retention) {
+        this.snapshotDir = snapshotDir;
+        this.retention = retention;
+    }
+
+    public synchronized SnapshotInfo save(SchemaSnapshot snapshot) {
+        Instant takenAt = Instant.now();
+        String id = String.valueOf(takenAt.toEpochMilli());
+        // Saves are serialised, so checking for a free name here cannot race with another save
+        for (int sequence = 1; Files.exists(fileOf(id)); sequence++) {
+            id = takenAt.toEpochMilli() + "-" + sequence;
+        }
+        Path file = fileOf(id);
+        try {
+            Files.createDirectories(snapshotDir);
+            Path temp = Files.createTempFile(snapshotDir, PREFIX, ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp));
+                 JsonGenerator generator = jsonFactory.createGenerator(out)) {
+                write(snapshot, generator);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            SnapshotInfo info = new SnapshotInfo(id, takenAt, Files.size(file));
+            LOG.info("Saved schema snapshot {} ({} tables, {} bytes)", id, snapshot.getTableCount(), info.sizeBytes());
+            prune();
+            return info;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save schema snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Snapshots on disk, oldest first.
+     */
+    public List<SnapshotInfo> list() {
+        if (!Files.isDirectory(snapshotDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            List<SnapshotInfo> snapshots = new ArrayList<>();
+            for (Path file : files.filter(SchemaSnapshotStore::isSnapshot).toList()) {
+                String id = idOf(file);
+                snapshots.add(new SnapshotInfo(id, takenAtOf(id), Files.size(file)));
+            }
+            snapshots.sort(Comparator.comparing(SnapshotInfo::takenAt)
+                    .thenComparingInt(snapshot -> sequenceOf(snapshot.id())));
+            return snapshots;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list schema snapshots in " + snapshotDir, e);
+        }
+    }
+
+    public Optional<SnapshotInfo> latest() {
+        List<SnapshotInfo> snapshots = list();
+        return snapshots.isEmpty() ? Optional.empty() : Optional.of(snapshots.get(snapshots.size() - 1));
+    }
+
+    public Optional<SchemaSnapshot> load(String id) {
+        if (!ID.matcher(id).matches()) {
+            return Optional.empty();
+        }
+        Path file = fileOf(id);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file));
+             JsonParser parser = jsonFactory.createParser(in)) {
+            return Optional.of(read(parser));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read schema snapshot " + file, e);
+        }
+    }
+
+    private void prune() throws IOException {
+        List<SnapshotInfo> snapshots = list();
+        Instant cutoff = Instant.now().minus(retention);
+        for (int i = 0; i < snapshots.size() - MIN_RETAINED; i++) {
+            SnapshotInfo snapshot = snapshots.get(i);
+            if (snapshot.takenAt().isBefore(cutoff)) {
+                Files.deleteIfExists(fileOf(snapshot.id()));
+                LOG.info("Deleted schema snapshot {} past retention", snapshot.id());
+            }
+        }
+    }
+
+    private static void write(SchemaSnapshot snapshot, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("tables");
+        for (String table : snapshot.getTableNames()) {
+            generator.writeArrayFieldStart(table);
+            for (Map.Entry<String, ColumnSchema> entry : snapshot.getColumns(table).entrySet()) {
+                ColumnSchema column = entry.getValue();
+                generator.writeStartArray();
+                generator.writeString(column.name());
+                generator.writeString(column.dataType());
+                generator.writeNumber(column.ordinal());
+                if (column.nullable() == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeBoolean(column.nullable());
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private static SchemaSnapshot read(JsonParser parser) throws IOException {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (!"tables".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String table = parser.currentName();
+                expect(parser.nextToken(), JsonToken.START_ARRAY);
+                snapshot.addTable(table);
+                while (parser.nextToken() == JsonToken.START_ARRAY) {
+                    parser.nextToken();
+                    String name = parser.getValueAsString();
+                    parser.nextToken();
+                    String dataType = parser.getValueAsString();
+                    parser.nextToken();
+                    int ordinal = parser.getIntValue();
+                    Boolean nullable = parser.nextToken() == JsonToken.VALUE_NULL ? null : parser.getBooleanValue();
+                    expect(parser.nextToken(), JsonToken.END_ARRAY);
+                    snapshot.addColumn(table, new ColumnSchema(name, dataType, ordinal, nullable));
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Malformed schema snapshot: expected " + expected + " but found " + actual);
+        }
+    }
+
+    private static boolean isSnapshot(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX) && ID.matcher(idOf(file)).matches();
+    }
+
+    private Path fileOf(String id) {
+        return snapshotDir.resolve(PREFIX + id + SUFFIX);
+    }
+
+    private static Instant takenAtOf(String id) {
+        int dash = id.indexOf('-');
+        return Instant.ofEpochMilli(Long.parseLong(dash < 0 ? id : id.substring(0, dash)));
+    }
+
+    private static int sequenceOf(String id) {
+        int dash = id.indexOf('-');
+        return dash < 0 ? 0 : Integer.parseInt(id.substring(dash + 1));
+    }
+
+    private static String idOf(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(PREFIX.length(), name.length() - SUFFIX.length());
+    }
+}
@@ -0,0 +1,119 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.model.DatasetColumn;
+import com.kenyahmis.supersetapilayer.model.DatasetDetail;
+import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads single Superset datasets. Only the requested fields are asked for through the rison {@code columns}
+ * projection, and the response is streamed straight into {@link DatasetDetail} without building a JSON tree.
+ * Parsed datasets are kept in the {@link MetadataCache} until Superset reports a change or they are invalidated.
+ */
+@Service
+public class SupersetDatasetReader {
+    private static final String DATASET_FIELDS = "table_name,description," + DatasetColumn.FIELDS;
+    private static final String SCHEMA_FIELDS = "table_name,columns.column_name,columns.type";
+
+    private final RestClient defaultClient;
+    private final SupersetApiProperties supersetApiProperties;
+    private final SupersetTokenManager supersetTokenManager;
+    private final ObjectMapper objectMapper;
+    private final MetadataCache metadataCache;
+
+    public SupersetDatasetReader(RestClient defaultClient, SupersetApiProperties supersetApiProperties,
+                                 SupersetTokenManager supersetTokenManager, ObjectMapper objectMapper,
+                                 MetadataCache metadataCache) {
+        this.defaultClient = defaultClient;
+        this.supersetApiProperties = supersetApiProperties;
+        this.supersetTokenManager = supersetTokenManager;
+        this.objectMapper = objectMapper;
+        this.metadataCache = metadataCache;
+    }
+
+    /**
+     * Reads the table name and description and every editable column attribute, enough to send the columns back
+     * in an update.
+     */
+    public DatasetDetail getDataset(int datasetId) {
+        return getDataset(datasetId, DATASET_FIELDS);
+    }
+
+    /**
+     * Reads only the table name and column names and types.
+     */
+    public DatasetDetail getDatasetSchema(int datasetId) {
+        return getDataset(datasetId, SCHEMA_FIELDS);
+    }
+
+    /**
+     * Drops the cached copies of a dataset after it was changed through the API.
+     */
+    public void invalidate(int datasetId) {
+        metadataCache.invalidate(uri(datasetId, DATASET_FIELDS));
+        metadataCache.invalidate(uri(datasetId, SCHEMA_FIELDS));
+    }
+
+    private DatasetDetail getDataset(int datasetId, String fields) {
+        final String uri = uri(datasetId, fields);
+        return metadataCache.get("superset-dataset", uri, validators -> supersetTokenManager.withAccessToken(
+                token -> defaultClient.get()
+                        .uri(uri)
+                        .header("Authorization", "Bearer " + token)
+                        .headers(headers -> headers.addAll(validators))
+                        .exchange((request, response) -> MetadataCache.fetched(response, ok -> {
+                            try (InputStream body = ok.getBody()) {
+                                return read(datasetId, body);
+                            }
+                        }))));
+    }
+
+    private String uri(int datasetId, String fields) {
+        return String.format("%s/api/v1/dataset/%d?q=(columns:!(%s))", supersetApiProperties.getBaseUrl(), datasetId,
+                fields);
+    }
+
+    DatasetDetail read(int datasetId, InputStream body) throws IOException {
+        String tableName = null;
+        String description = null;
+        List<DatasetColumn> columns = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object for dataset " + datasetId);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (!"result".equals(field) || parser.currentToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String resultField = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("table_name".equals(resultField)) {
+                        tableName = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    } else if ("description".equals(resultField)) {
+                        description = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    } else if ("columns".equals(resultField) && value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            columns.add(parser.readValueAs(DatasetColumn.class));
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        return new DatasetDetail(datasetId, tableName, description, List.copyOf(columns));
+    }
+}
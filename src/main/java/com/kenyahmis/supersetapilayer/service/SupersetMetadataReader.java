@@ -0,0 +1,52 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.model.ColumnSchema;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reads dataset and column definitions directly from Superset's metadata database. Only physical datasets of the
+ * given database are read, as virtual datasets and other databases have no counterpart in the reporting schema.
+ */
+@Service
+public class SupersetMetadataReader {
+    private final JdbcTemplate postgresJdbcTemplate;
+    private final OutboundMetrics outboundMetrics;
+    private final Logger LOG = LoggerFactory.getLogger(SupersetMetadataReader.class);
+    private static final String FETCH_DATASETS_QUERY = """
+            SELECT t.table_name, c.column_name, c.type
+            FROM tables t
+            LEFT JOIN table_columns c ON c.table_id = t.id
+            WHERE t.database_id = ? AND (t.sql IS NULL OR t.sql = '')
+            ORDER BY t.id, c.id
+            """;
+
+    public SupersetMetadataReader(JdbcTemplate postgresJdbcTemplate, OutboundMetrics outboundMetrics) {
+        this.postgresJdbcTemplate = postgresJdbcTemplate;
+        this.outboundMetrics = outboundMetrics;
+    }
+
+    public SchemaSnapshot load(int databaseId) {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        outboundMetrics.record(OutboundMetrics.SUPERSET_DB, "datasets", () -> {
+            postgresJdbcTemplate.query(FETCH_DATASETS_QUERY, rs -> {
+                String tableName = rs.getString("table_name");
+                String columnName = rs.getString("column_name");
+                if (columnName == null) {
+                    snapshot.addTable(tableName);
+                } else {
+                    snapshot.addColumn(tableName, new ColumnSchema(columnName, rs.getString("type"),
+                            snapshot.getColumns(tableName).size() + 1, null));
+                }
+            }, databaseId);
+            return snapshot;
+        });
+        LOG.info("Fetched {} datasets with {} columns from Superset metadata database", snapshot.getTableCount(),
+                snapshot.getColumnCount());
+        return snapshot;
+    }
+}
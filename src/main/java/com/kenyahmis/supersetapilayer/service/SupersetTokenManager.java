@@ -0,0 +1,170 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Caches the Superset access token and renews it shortly before it expires, using the refresh token
+ * when one was issued at login. Concurrent callers needing a new token wait on a single renewal.
+ */
+@Service
+public class SupersetTokenManager {
+    private final RestClient defaultClient;
+    private final SupersetApiProperties supersetApiProperties;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock renewalLock = new ReentrantLock();
+    private volatile Token accessToken;
+    private volatile Token refreshToken;
+    private final Logger LOG = LoggerFactory.getLogger(SupersetTokenManager.class);
+
+    public SupersetTokenManager(RestClient defaultClient, SupersetApiProperties supersetApiProperties,
+                                ObjectMapper objectMapper) {
+        this.defaultClient = defaultClient;
+        this.supersetApiProperties = supersetApiProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    public String getAccessToken() {
+        Token current = accessToken;
+        if (isUsable(current)) {
+            return current.value();
+        }
+        renewalLock.lock();
+        try {
+            current = accessToken;
+            if (isUsable(current)) {
+                return current.value();
+            }
+            accessToken = renew();
+            return accessToken.value();
+        } finally {
+            renewalLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a call with the current access token, logging in again and retrying once if Superset rejects
+     * the token with a 401.
+     */
+    public <T> T withAccessToken(Function<String, T> call) {
+        String token = getAccessToken();
+        try {
+            return call.apply(token);
+        } catch (HttpClientErrorException.Unauthorized ue) {
+            LOG.warn("Superset rejected the cached access token, renewing and retrying");
+            invalidate(token);
+            return call.apply(getAccessToken());
+        }
+    }
+
+    public void invalidate(String token) {
+        renewalLock.lock();
+        try {
+            Token current = accessToken;
+            if (current != null && current.value().equals(token)) {
+                accessToken = null;
+            }
+        } finally {
+            renewalLock.unlock();
+        }
+    }
+
+    private Token renew() {
+        Token refresh = refreshToken;
+        if (isUsable(refresh)) {
+            try {
+                return refresh(refresh);
+            } catch (RestClientException e) {
+                LOG.warn("Failed to refresh Superset access token, logging in again: {}", e.getMessage());
+                refreshToken = null;
+            }
+        }
+        return login();
+    }
+
+    private Token login() {
+        Map<String, String> requestBody = new HashMap<>();
+        requestBody.put("password", supersetApiProperties.getPassword());
+        requestBody.put("provider", supersetApiProperties.getProvider());
+        requestBody.put("refresh", supersetApiProperties.getRefresh());
+        requestBody.put("username", supersetApiProperties.getUsername());
+        String uri = String.format("%s/api/v1/security/login", supersetApiProperties.getBaseUrl());
+        ResponseEntity<JsonNode> response = defaultClient.post()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(requestBody)
+                .retrieve()
+                .toEntity(JsonNode.class);
+        JsonNode node = response.getBody();
+        if (node == null || !node.hasNonNull("access_token")) {
+            throw new IllegalStateException("Superset login response did not contain an access token");
+        }
+        if (node.hasNonNull("refresh_token")) {
+            refreshToken = toToken(node.get("refresh_token").textValue());
+        }
+        LOG.info("Logged in to Superset as {}", supersetApiProperties.getUsername());
+        return toToken(node.get("access_token").textValue());
+    }
+
+    private Token refresh(Token refresh) {
+        String uri = String.format("%s/api/v1/security/refresh", supersetApiProperties.getBaseUrl());
+        ResponseEntity<JsonNode> response = defaultClient.post()
+                .uri(uri)
+                .header("Authorization", "Bearer " + refresh.value())
+                .retrieve()
+                .toEntity(JsonNode.class);
+        JsonNode node = response.getBody();
+        if (node == null || !node.hasNonNull("access_token")) {
+            throw new IllegalStateException("Superset refresh response did not contain an access token");
+        }
+        LOG.info("Refreshed Superset access token");
+        return toToken(node.get("access_token").textValue());
+    }
+
+    private boolean isUsable(Token token) {
+        return token != null
+                && Instant.now().plus(supersetApiProperties.getTokenRefreshAhead()).isBefore(token.expiresAt());
+    }
+
+    private Token toToken(String jwt) {
+        return new Token(jwt, readExpiry(jwt));
+    }
+
+    // Tokens without a readable exp claim are kept until Superset rejects them with a 401
+    private Instant readExpiry(String jwt) {
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) {
+            return Instant.MAX;
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+            JsonNode claims = objectMapper.readTree(new String(payload, StandardCharsets.UTF_8));
+            JsonNode exp = claims.get("exp");
+            return exp != null && exp.canConvertToLong() ? Instant.ofEpochSecond(exp.longValue()) : Instant.MAX;
+        } catch (IllegalArgumentException | IOException e) {
+            LOG.warn("Could not read expiry from Superset token: {}", e.getMessage());
+            return Instant.MAX;
+        }
+    }
+
+    private record Token(String value, Instant expiresAt) {
+    }
+}
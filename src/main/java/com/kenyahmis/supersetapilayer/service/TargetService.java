@@ -0,0 +1,222 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.config.DataSourceWarmUp;
+import com.kenyahmis.supersetapilayer.config.HttpClientConfig;
+import com.kenyahmis.supersetapilayer.config.JdbcConfig;
+import com.kenyahmis.supersetapilayer.model.JobProgress;
+import com.kenyahmis.supersetapilayer.model.TargetResult;
+import com.kenyahmis.supersetapilayer.properties.OpenmetadataApiProperties;
+import com.kenyahmis.supersetapilayer.properties.ReportingDatabaseProperties;
+import com.kenyahmis.supersetapilayer.properties.StorageProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetDatabaseProperties;
+import com.kenyahmis.supersetapilayer.properties.TargetProperties;
+import com.kenyahmis.supersetapilayer.properties.TargetsProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+/**
+ * The additional Superset instances configured under {@code targets.instances}, which share the row level security
+ * rules of the default instance. Each target is a child application context holding its own
+ * {@link APIService} with its own HTTP and database connection pools and local state directory, and operations
+ * run against the targets concurrently; a failing target does not affect the others.
+ */
+@Service
+public class TargetService {
+    private final static Pattern TARGET_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final Map<String, Target> targets = new LinkedHashMap<>();
+    private final ExecutorService targetExecutor;
+    private final Logger LOG = LoggerFactory.getLogger(TargetService.class);
+
+    public TargetService(TargetsProperties targetsProperties, StorageProperties storageProperties,
+                         ApplicationContext applicationContext) {
+        for (TargetProperties targetProperties : targetsProperties.getInstances()) {
+            String name = targetProperties.getName();
+            if (name == null || !TARGET_NAME.matcher(name).matches()) {
+                throw new IllegalStateException("Target names must match " + TARGET_NAME + ", got: " + name);
+            }
+            if (targets.containsKey(name)) {
+                throw new IllegalStateException("Duplicate target name: " + name);
+            }
+            AnnotationConfigApplicationContext context = createTarget(targetProperties, storageProperties,
+                    applicationContext);
+            targets.put(name, new Target(context, context.getBean(APIService.class)));
+        }
+        this.targetExecutor = Executors.newFixedThreadPool(Math.max(1,
+                Math.min(targetsProperties.getMaxConcurrent(), targets.size())));
+        if (!targets.isEmpty()) {
+            LOG.info("Configured {} targets: {}", targets.size(), targets.keySet());
+        }
+    }
+
+    public boolean hasTargets() {
+        return !targets.isEmpty();
+    }
+
+    public List<String> getTargetNames() {
+        return new ArrayList<>(targets.keySet());
+    }
+
+    public Optional<APIService> getApiService(String name) {
+        return Optional.ofNullable(targets.get(name)).map(Target::apiService);
+    }
+
+    /**
+     * Runs the operation on each named target concurrently and waits for all of them. Progress from every target
+     * is reported through {@code progress}, with failed items prefixed by the target name.
+     */
+    public Map<String, TargetResult> runOnTargets(List<String> names, BiFunction<APIService, JobProgress, Object> operation,
+                                                  JobProgress progress) {
+        Map<String, Long> totals = new ConcurrentHashMap<>();
+        Map<String, Future<TargetResult>> pending = new LinkedHashMap<>();
+        for (String name : names) {
+            APIService apiService = getApiService(name)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown target: " + name));
+            JobProgress targetProgress = new TargetProgress(name, totals, progress);
+            pending.put(name, targetExecutor.submit(() -> runOnTarget(name, apiService, operation, targetProgress)));
+        }
+        Map<String, TargetResult> results = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Future<TargetResult>> entry : pending.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.values().forEach(future -> future.cancel(true));
+            LOG.warn("Multi-target run interrupted with {} of {} targets finished", results.size(), names.size());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Target task failed", e.getCause());
+        }
+        return results;
+    }
+
+    private TargetResult runOnTarget(String name, APIService apiService,
+                                     BiFunction<APIService, JobProgress, Object> operation, JobProgress progress) {
+        long start = System.nanoTime();
+        try {
+            Object result = operation.apply(apiService, progress);
+            TargetResult.TargetStatus status = progress.isCancelled() ? TargetResult.TargetStatus.CANCELLED
+                    : TargetResult.TargetStatus.SUCCEEDED;
+            return new TargetResult(name, status, result, null, elapsedMillis(start));
+        } catch (RuntimeException e) {
+            LOG.error("Operation failed on target {}", name, e);
+            return new TargetResult(name, TargetResult.TargetStatus.FAILED, null, String.valueOf(e.getMessage()),
+                    elapsedMillis(start));
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    // The target gets the same configuration classes as the default instance, so its HTTP client, metrics
+    // interceptor, connection pools and warm-up are built by the same bean methods; everything not configured per
+    // target is taken from the parent context
+    private AnnotationConfigApplicationContext createTarget(TargetProperties targetProperties,
+                                                            StorageProperties storageProperties,
+                                                            ApplicationContext parent) {
+        String name = targetProperties.getName();
+        SupersetApiProperties superset = new SupersetApiProperties();
+        BeanUtils.copyProperties(targetProperties.getSuperset(), superset);
+        BeanUtils.copyProperties(targetProperties.getSuperset().getHttp(), superset.getHttp());
+        superset.setChangeLogSubject(String.format("%s (%s)", superset.getChangeLogSubject(), name));
+        StorageProperties storage = new StorageProperties();
+        storage.setDataDir(Path.of(storageProperties.getDataDir()).resolve("targets").resolve(name).toString());
+        storage.setSnapshotRetention(storageProperties.getSnapshotRetention());
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.setParent(parent);
+        context.setDisplayName("target " + name);
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("target",
+                Map.of("target.name", name)));
+        registerPrimary(context, "supersetApiProperties", SupersetApiProperties.class, superset);
+        registerPrimary(context, "openmetadataApiProperties", OpenmetadataApiProperties.class,
+                targetProperties.getOpenmetadata());
+        registerPrimary(context, "reportingDatabaseProperties", ReportingDatabaseProperties.class,
+                targetProperties.getReporting());
+        registerPrimary(context, "supersetDatabaseProperties", SupersetDatabaseProperties.class,
+                targetProperties.getSupersetDb());
+        registerPrimary(context, "storageProperties", StorageProperties.class, storage);
+        context.register(HttpClientConfig.class, JdbcConfig.class, DataSourceWarmUp.class,
+                SupersetTokenManager.class, GlossaryService.class, ReportingSchemaLoader.class,
+                SupersetMetadataReader.class, LocalStateStore.class, SchemaSnapshotStore.class,
+                DatasetImportService.class, SupersetDatasetReader.class, RlsProvisioningService.class,
+                APIService.class);
+        context.refresh();
+        return context;
+    }
+
+    // Primary, so the target's settings win over the parent's beans of the same type
+    private static <T> void registerPrimary(AnnotationConfigApplicationContext context, String beanName,
+                                            Class<T> type, T instance) {
+        context.registerBean(beanName, type, () -> instance, definition -> definition.setPrimary(true));
+    }
+
+    /**
+     * Warms up the connection pools of every target. Application events do not reach child contexts, so the
+     * targets' {@link DataSourceWarmUp} is called once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        targets.values().forEach(target -> target.context().getBean(DataSourceWarmUp.class).warmUp());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        targetExecutor.shutdownNow();
+        // Closing a target's context shuts down its APIService, connection pools and HTTP client
+        targets.values().forEach(target -> target.context().close());
+    }
+
+    private record Target(AnnotationConfigApplicationContext context, APIService apiService) {
+    }
+
+    // Adds up the totals of all targets, since the job only has one
+    private record TargetProgress(String target, Map<String, Long> totals, JobProgress progress) implements JobProgress {
+
+        @Override
+        public void setTotal(long total) {
+            totals.put(target, total);
+            progress.setTotal(totals.values().stream().mapToLong(Long::longValue).sum());
+        }
+
+        @Override
+        public void itemDone() {
+            progress.itemDone();
+        }
+
+        @Override
+        public void itemFailed(String item, String reason) {
+            progress.itemFailed(target + "/" + item, reason);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return progress.isCancelled();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.model.GlossaryIndex;
+import com.kenyahmis.supersetapilayer.model.WorkQueueRun;
+import com.kenyahmis.supersetapilayer.model.WorkQueueTask;
+import com.kenyahmis.supersetapilayer.properties.WorkQueueProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shards refresh and description runs across replicas. A run is split into one task per dataset in the
+ * {@link WorkQueueStore}; every replica with the queue enabled claims tasks, works through them on its own
+ * worker threads and renews the leases of the tasks it holds until they finish.
+ */
+@Service
+public class WorkQueueService {
+    public final static String REFRESH = "refresh";
+    public final static String DESCRIPTION = "description";
+    private final static Set<String> OPERATIONS = Set.of(REFRESH, DESCRIPTION);
+    private final static Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final WorkQueueStore workQueueStore;
+    private final WorkQueueProperties workQueueProperties;
+    private final APIService apiService;
+    private final GlossaryService glossaryService;
+    private final Map<Long, WorkQueueTask> inFlight = new ConcurrentHashMap<>();
+    private ExecutorService taskExecutor;
+    private ScheduledExecutorService scheduler;
+    private String glossaryRunId;
+    private GlossaryIndex glossaryIndex;
+    private Instant lastPurge = Instant.EPOCH;
+    private final Logger LOG = LoggerFactory.getLogger(WorkQueueService.class);
+
+    public WorkQueueService(WorkQueueStore workQueueStore, WorkQueueProperties workQueueProperties,
+                            APIService apiService, GlossaryService glossaryService) {
+        this.workQueueStore = workQueueStore;
+        this.workQueueProperties = workQueueProperties;
+        this.apiService = apiService;
+        this.glossaryService = glossaryService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!workQueueProperties.isEnabled()) {
+            LOG.info("Work queue disabled");
+            return;
+        }
+        workQueueStore.createSchema();
+        taskExecutor = Executors.newFixedThreadPool(workQueueProperties.getWorkers());
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::poll, 0, workQueueProperties.getPollInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::renewLeases, workQueueProperties.getHeartbeatInterval().toMillis(),
+                workQueueProperties.getHeartbeatInterval().toMillis(), TimeUnit.MILLISECONDS);
+        LOG.info("Work queue worker {} started with {} threads", workQueueStore.getWorkerId(),
+                workQueueProperties.getWorkers());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            taskExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return workQueueProperties.isEnabled();
+    }
+
+    /**
+     * Queues one task per Superset dataset for the operation and returns the new run.
+     */
+    public WorkQueueRun submit(String operation) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Work queue is not enabled");
+        }
+        if (!OPERATIONS.contains(operation)) {
+            throw new IllegalArgumentException("Unsupported work queue operation: " + operation);
+        }
+        String runId = workQueueStore.createRun(operation, apiService.getDatasetIds());
+        scheduler.execute(this::poll);
+        return workQueueStore.getRun(runId).orElseThrow();
+    }
+
+    public Optional<WorkQueueRun> getRun(String runId) {
+        return workQueueStore.getRun(runId);
+    }
+
+    private void poll() {
+        try {
+            workQueueStore.completeRuns();
+            purgeFinishedRuns();
+            int free = workQueueProperties.getWorkers() - inFlight.size();
+            if (free <= 0) {
+                return;
+            }
+            List<WorkQueueTask> tasks = workQueueStore.claim(free);
+            for (WorkQueueTask task : tasks) {
+                inFlight.put(task.id(), task);
+                taskExecutor.execute(() -> process(task));
+            }
+            if (!tasks.isEmpty()) {
+                LOG.debug("Claimed {} work queue tasks", tasks.size());
+            }
+        } catch (DataAccessException e) {
+            LOG.warn("Failed to poll the work queue: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            LOG.error("Work queue poll failed", e);
+        }
+    }
+
+    private void process(WorkQueueTask task) {
+        String error = null;
+        boolean retry = true;
+        try {
+            switch (task.operation()) {
+                case REFRESH -> apiService.refreshDataset(task.datasetId());
+                case DESCRIPTION -> apiService.updateDatasetDescriptions(task.datasetId(), glossaryIndex(task.runId()));
+                default -> {
+                    error = "Unsupported operation " + task.operation();
+                    retry = false;
+                }
+            }
+        } catch (HttpClientErrorException e) {
+            // Other client errors will not go away on a retry
+            error = e.getStatusCode() + " " + e.getResponseBodyAsString();
+            retry = e.getStatusCode().value() == 429;
+        } catch (RuntimeException e) {
+            error = String.valueOf(e.getMessage());
+        }
+        try {
+            boolean recorded = error == null ? workQueueStore.complete(task) : workQueueStore.fail(task, error, retry);
+            if (!recorded) {
+                LOG.warn("Lost the lease on {} task {} for dataset {}", task.operation(), task.id(), task.datasetId());
+            } else if (error != null) {
+                LOG.error("{} task {} for dataset {} failed on attempt {}: {}", task.operation(), task.id(),
+                        task.datasetId(), task.attempts(), error);
+            }
+        } catch (DataAccessException e) {
+            // The lease runs out and another worker picks the task up again
+            LOG.warn("Failed to record the outcome of task {}: {}", task.id(), e.getMessage());
+        } finally {
+            inFlight.remove(task.id());
+            if (!scheduler.isShutdown()) {
+                scheduler.execute(this::poll);
+            }
+        }
+    }
+
+    private void renewLeases() {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        try {
+            Set<Long> taskIds = Set.copyOf(inFlight.keySet());
+            int renewed = workQueueStore.renewLeases(taskIds);
+            if (renewed < taskIds.size()) {
+                LOG.warn("Renewed {} of {} work queue leases", renewed, taskIds.size());
+            }
+        } catch (DataAccessException e) {
+            LOG.warn("Failed to renew work queue leases: {}", e.getMessage());
+        }
+    }
+
+    // Description tasks of one run share a glossary index, loaded once per replica
+    private synchronized GlossaryIndex glossaryIndex(String runId) {
+        if (!runId.equals(glossaryRunId)) {
+            glossaryIndex = glossaryService.loadGlossaryIndex();
+            glossaryRunId = runId;
+        }
+        return glossaryIndex;
+    }
+
+    private void purgeFinishedRuns() {
+        Instant now = Instant.now();
+        if (lastPurge.plus(PURGE_INTERVAL).isAfter(now)) {
+            return;
+        }
+        lastPurge = now;
+        int purged = workQueueStore.purgeRunsFinishedBefore(now.minus(workQueueProperties.getRunRetention()));
+        if (purged > 0) {
+            LOG.info("Purged {} finished work queue runs", purged);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.model.WorkQueueRun;
+import com.kenyahmis.supersetapilayer.model.WorkQueueTask;
+import com.kenyahmis.supersetapilayer.properties.WorkQueueProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Per-dataset work queue kept in the {@code api_layer_*} tables of the Superset Postgres database. Replicas claim
+ * tasks with {@code FOR UPDATE SKIP LOCKED}, so each task is handed to one worker at a time; a claim is a lease that
+ * the worker renews while it runs and that another replica may take over once it expires.
+ */
+@Service
+public class WorkQueueStore {
+    private final JdbcTemplate postgresJdbcTemplate;
+    private final WorkQueueProperties workQueueProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final String workerId;
+    private final Logger LOG = LoggerFactory.getLogger(WorkQueueStore.class);
+    // Serialises schema creation across replicas starting together
+    private static final long SCHEMA_LOCK_KEY = 0x6170695f6c617972L;
+    private static final String CREATE_SCHEMA = """
+            CREATE TABLE IF NOT EXISTS api_layer_run (
+                id VARCHAR(36) PRIMARY KEY,
+                operation VARCHAR(64) NOT NULL,
+                status VARCHAR(16) NOT NULL,
+                total INTEGER NOT NULL DEFAULT 0,
+                created_by VARCHAR(255) NOT NULL,
+                created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+                finished_at TIMESTAMPTZ
+            );
+            CREATE TABLE IF NOT EXISTS api_layer_task (
+                id BIGSERIAL PRIMARY KEY,
+                run_id VARCHAR(36) NOT NULL REFERENCES api_layer_run (id) ON DELETE CASCADE,
+                dataset_id INTEGER NOT NULL,
+                status VARCHAR(16) NOT NULL,
+                attempts INTEGER NOT NULL DEFAULT 0,
+                lease_owner VARCHAR(255),
+                lease_expires_at TIMESTAMPTZ,
+                last_error TEXT,
+                updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+                UNIQUE (run_id, dataset_id)
+            );
+            CREATE INDEX IF NOT EXISTS api_layer_task_open_idx ON api_layer_task (id)
+                WHERE status IN ('PENDING', 'RUNNING');
+            """;
+    private static final String CLAIM_TASKS = """
+            UPDATE api_layer_task t
+            SET status = 'RUNNING', lease_owner = ?, lease_expires_at = now() + make_interval(secs => ?),
+                attempts = t.attempts + 1, updated_at = now()
+            FROM (
+                SELECT c.id, r.operation
+                FROM api_layer_task c
+                JOIN api_layer_run r ON r.id = c.run_id
+                WHERE r.status = 'RUNNING'
+                  AND (c.status = 'PENDING' OR (c.status = 'RUNNING' AND c.lease_expires_at < now()))
+                  AND c.attempts < ?
+                ORDER BY c.id
+                LIMIT ?
+                FOR UPDATE OF c SKIP LOCKED
+            ) claimed
+            WHERE t.id = claimed.id
+            RETURNING t.id, t.run_id, claimed.operation, t.dataset_id, t.attempts
+            """;
+    private static final String RENEW_LEASE = """
+            UPDATE api_layer_task SET lease_expires_at = now() + make_interval(secs => ?), updated_at = now()
+            WHERE id = ? AND lease_owner = ? AND status = 'RUNNING'
+            """;
+    private static final String COMPLETE_TASK = """
+            UPDATE api_layer_task
+            SET status = 'DONE', lease_owner = NULL, lease_expires_at = NULL, last_error = NULL, updated_at = now()
+            WHERE id = ? AND lease_owner = ? AND status = 'RUNNING'
+            """;
+    private static final String FAIL_TASK = """
+            UPDATE api_layer_task
+            SET status = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'PENDING' END,
+                lease_owner = NULL, lease_expires_at = NULL, last_error = ?, updated_at = now()
+            WHERE id = ? AND lease_owner = ? AND status = 'RUNNING'
+            """;
+    private static final String EXPIRE_EXHAUSTED = """
+            UPDATE api_layer_task
+            SET status = 'FAILED', lease_owner = NULL, lease_expires_at = NULL,
+                last_error = 'Lease expired on the last attempt', updated_at = now()
+            WHERE status = 'RUNNING' AND lease_expires_at < now() AND attempts >= ?
+            """;
+    private static final String COMPLETE_RUNS = """
+            UPDATE api_layer_run r SET status = 'COMPLETED', finished_at = now()
+            WHERE r.status = 'RUNNING' AND NOT EXISTS (
+                SELECT 1 FROM api_layer_task t WHERE t.run_id = r.id AND t.status IN ('PENDING', 'RUNNING'))
+            RETURNING r.id
+            """;
+    private static final String FETCH_RUN = """
+            SELECT r.id, r.operation, r.status, r.total, r.created_at, r.finished_at,
+                   count(*) FILTER (WHERE t.status = 'DONE') AS done,
+                   count(*) FILTER (WHERE t.status = 'FAILED') AS failed
+            FROM api_layer_run r
+            LEFT JOIN api_layer_task t ON t.run_id = r.id
+            WHERE r.id = ?
+            GROUP BY r.id
+            """;
+
+    public WorkQueueStore(JdbcTemplate postgresJdbcTemplate, WorkQueueProperties workQueueProperties) {
+        this.postgresJdbcTemplate = postgresJdbcTemplate;
+        this.workQueueProperties = workQueueProperties;
+        this.transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(postgresJdbcTemplate.getDataSource()));
+        this.workerId = StringUtils.hasText(workQueueProperties.getWorkerId()) ? workQueueProperties.getWorkerId()
+                : ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    public void createSchema() {
+        postgresJdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT pg_advisory_xact_lock(" + SCHEMA_LOCK_KEY + ")");
+                statement.execute(CREATE_SCHEMA);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Creates a run with one pending task per dataset in a single transaction, so workers never see a run
+     * with only part of its tasks, and a failure part way through leaves nothing behind.
+     */
+    public String createRun(String operation, List<Integer> datasetIds) {
+        String runId = UUID.randomUUID().toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            postgresJdbcTemplate.update("INSERT INTO api_layer_run (id, operation, status, total, created_by) VALUES (?, ?, ?, ?, ?)",
+                    runId, operation, WorkQueueRun.RunStatus.RUNNING.name(), datasetIds.size(), workerId);
+            postgresJdbcTemplate.batchUpdate("INSERT INTO api_layer_task (run_id, dataset_id, status) VALUES (?, ?, 'PENDING')",
+                    datasetIds, 500, (ps, datasetId) -> {
+                        ps.setString(1, runId);
+                        ps.setInt(2, datasetId);
+                    });
+        });
+        LOG.info("Queued {} run {} with {} tasks", operation, runId, datasetIds.size());
+        return runId;
+    }
+
+    /**
+     * Claims up to {@code limit} tasks for this worker: pending ones, and running ones whose lease expired.
+     */
+    public List<WorkQueueTask> claim(int limit) {
+        return postgresJdbcTemplate.query(CLAIM_TASKS, (rs, rowNum) -> new WorkQueueTask(rs.getLong("id"),
+                        rs.getString("run_id"), rs.getString("operation"), rs.getInt("dataset_id"), rs.getInt("attempts")),
+                workerId, leaseSeconds(), workQueueProperties.getMaxAttempts(), limit);
+    }
+
+    // Returns how many of the leases were still held by this worker and got extended
+    public int renewLeases(Collection<Long> taskIds) {
+        List<Object[]> args = new ArrayList<>(taskIds.size());
+        for (Long taskId : taskIds) {
+            args.add(new Object[]{leaseSeconds(), taskId, workerId});
+        }
+        int renewed = 0;
+        for (int count : postgresJdbcTemplate.batchUpdate(RENEW_LEASE, args)) {
+            renewed += Math.max(count, 0);
+        }
+        return renewed;
+    }
+
+    // Returns false when the lease was lost, in which case another worker owns the task now
+    public boolean complete(WorkQueueTask task) {
+        return postgresJdbcTemplate.update(COMPLETE_TASK, task.id(), workerId) == 1;
+    }
+
+    /**
+     * Releases the task for another attempt, or fails it for good once it used its attempts or when
+     * {@code retry} is false.
+     */
+    public boolean fail(WorkQueueTask task, String error, boolean retry) {
+        int failAfter = retry ? workQueueProperties.getMaxAttempts() : 0;
+        return postgresJdbcTemplate.update(FAIL_TASK, failAfter, error, task.id(), workerId) == 1;
+    }
+
+    /**
+     * Fails tasks whose worker disappeared on their last attempt, then marks runs without open tasks as completed.
+     */
+    public List<String> completeRuns() {
+        int expired = postgresJdbcTemplate.update(EXPIRE_EXHAUSTED, workQueueProperties.getMaxAttempts());
+        if (expired > 0) {
+            LOG.warn("Failed {} tasks whose lease expired on their last attempt", expired);
+        }
+        List<String> completed = postgresJdbcTemplate.queryForList(COMPLETE_RUNS, String.class);
+        completed.forEach(runId -> LOG.info("Work queue run {} completed", runId));
+        return completed;
+    }
+
+    public int purgeRunsFinishedBefore(Instant cutoff) {
+        return postgresJdbcTemplate.update("DELETE FROM api_layer_run WHERE status = ? AND finished_at < ?",
+                WorkQueueRun.RunStatus.COMPLETED.name(), Timestamp.from(cutoff));
+    }
+
+    public Optional<WorkQueueRun> getRun(String runId) {
+        return postgresJdbcTemplate.query(FETCH_RUN, (rs, rowNum) -> new WorkQueueRun(rs.getString("id"),
+                rs.getString("operation"), WorkQueueRun.RunStatus.valueOf(rs.getString("status")), rs.getInt("total"),
+                rs.getInt("done"), rs.getInt("failed"), toInstant(rs, "created_at"), toInstant(rs, "finished_at")),
+                runId).stream().findFirst();
+    }
+
+    private double leaseSeconds() {
+        Duration lease = workQueueProperties.getLeaseDuration();
+        return lease.toMillis() / 1000.0;
+    }
+
+    private static Instant toInstant(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
@@ -0,0 +1,97 @@
+package com.kenyahmis.supersetapilayer.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void growsByAboutOneSlotPerWindowOfSuccesses() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 4, Duration.ofMinutes(1));
+
+        succeed(limiter, 3, FAST);
+        assertEquals(3, limiter.getLimit());
+        succeed(limiter, 3, FAST);
+        assertEquals(4, limiter.getLimit());
+        succeed(limiter, 100, FAST);
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void halvesOncePerOverloadBurst() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 8, Duration.ofMinutes(1));
+        for (int i = 0; i < 8; i++) {
+            limiter.acquire();
+        }
+
+        // Every call in flight comes back with a 503
+        for (int i = 0; i < 8; i++) {
+            limiter.onOverload();
+        }
+        assertEquals(4, limiter.getLimit());
+
+        // Once the burst has drained, the next overload backs off again
+        limiter.acquire();
+        limiter.onOverload();
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void backsOffWhenTheMedianLatencyOfAWindowDoubles() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 8, Duration.ofMinutes(1));
+        succeed(limiter, AdaptiveConcurrencyLimiter.LATENCY_WINDOW, FAST);
+
+        // A few wide tables in a window are normal variance, not overload
+        succeed(limiter, AdaptiveConcurrencyLimiter.LATENCY_WINDOW - 3, FAST);
+        succeed(limiter, 3, TimeUnit.SECONDS.toNanos(1));
+        assertEquals(8, limiter.getLimit());
+
+        succeed(limiter, AdaptiveConcurrencyLimiter.LATENCY_WINDOW, SLOW);
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void backsOffWhenTheMedianLatencyExceedsTheThreshold() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 8, Duration.ofMillis(20));
+
+        succeed(limiter, AdaptiveConcurrencyLimiter.LATENCY_WINDOW - 1, SLOW);
+        assertEquals(8, limiter.getLimit());
+        succeed(limiter, 1, SLOW);
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void ignoredFailuresReleaseTheirSlotWithoutChangingTheLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4, Duration.ofMinutes(1));
+
+        limiter.acquire();
+        limiter.onIgnored();
+        Thread acquirer = new Thread(() -> {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        acquirer.start();
+        acquirer.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertFalse(acquirer.isAlive(), "The released slot was not handed out again");
+        assertEquals(1, limiter.getLimit());
+    }
+
+    private static void succeed(AdaptiveConcurrencyLimiter limiter, int calls, long latencyNanos)
+            throws InterruptedException {
+        for (int i = 0; i < calls; i++) {
+            limiter.acquire();
+            limiter.onSuccess(latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.kenyahmis.supersetapilayer.loadtest;
+
+/**
+ * Naming shared by the stubs so the reporting database, Superset and the glossary describe the same tables.
+ */
+final class LoadTestData {
+    static final String GLOSSARY = "Dictionary";
+    static final String[] SUPERSET_TYPES = {"INTEGER", "NVARCHAR", "DATETIME", "DECIMAL", "BIT", "DATE"};
+
+    private LoadTestData() {
+    }
+
+    static String tableName(int table) {
+        return "Table" + table;
+    }
+
+    static String columnName(int column) {
+        return "Column" + column;
+    }
+}
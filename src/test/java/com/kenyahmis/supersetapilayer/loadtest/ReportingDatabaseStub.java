@@ -0,0 +1,84 @@
+package com.kenyahmis.supersetapilayer.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory H2 database in SQL Server mode that carries just enough of the {@code sys} catalog views for the
+ * reporting schema and table activity queries to run unchanged.
+ */
+public class ReportingDatabaseStub {
+    private static final String[] TYPES = {"int", "nvarchar", "datetime", "decimal", "bit", "date"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReportingDatabaseStub(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";MODE=MSSQLServer;DATABASE_TO_UPPER=FALSE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS sys");
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS DB_ID FOR \"" + ReportingDatabaseStub.class.getName() + ".dbId\"");
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS SCHEMA_NAME FOR \"" + ReportingDatabaseStub.class.getName() + ".schemaName\"");
+        jdbcTemplate.execute("CREATE TABLE sys.tables (object_id INT PRIMARY KEY, schema_id INT, name VARCHAR(128), modify_date TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE sys.columns (object_id INT, name VARCHAR(128), column_id INT, user_type_id INT, is_nullable BIT)");
+        jdbcTemplate.execute("CREATE TABLE sys.types (user_type_id INT PRIMARY KEY, name VARCHAR(128))");
+        jdbcTemplate.execute("CREATE TABLE sys.dm_db_index_usage_stats (database_id INT, object_id INT, index_id INT, last_user_update TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE sys.dm_db_partition_stats (object_id INT, index_id INT, row_count BIGINT)");
+        for (int type = 0; type < TYPES.length; type++) {
+            jdbcTemplate.update("INSERT INTO sys.types VALUES (?, ?)", type + 1, TYPES[type]);
+        }
+    }
+
+    public static int dbId() {
+        return 1;
+    }
+
+    // Every stub table lives in dbo, SQL Server's schema 1
+    public static String schemaName(int schemaId) {
+        return schemaId == 1 ? "dbo" : null;
+    }
+
+    /**
+     * Adds {@code tables} tables named {@code Table<n>}, starting at {@code firstTable}, with {@code columns}
+     * columns each.
+     */
+    public void addTables(int firstTable, int tables, int columns) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> tableRows = new ArrayList<>();
+        List<Object[]> columnRows = new ArrayList<>();
+        List<Object[]> partitionRows = new ArrayList<>();
+        for (int table = firstTable; table < firstTable + tables; table++) {
+            int objectId = table + 1;
+            tableRows.add(new Object[]{objectId, 1, LoadTestData.tableName(table), now});
+            partitionRows.add(new Object[]{objectId, 1, 1_000L * (table % 97 + 1)});
+            for (int column = 0; column < columns; column++) {
+                columnRows.add(new Object[]{objectId, LoadTestData.columnName(column), column + 1,
+                        column % TYPES.length + 1, column % 3 != 0});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sys.tables VALUES (?, ?, ?, ?)", tableRows);
+        jdbcTemplate.batchUpdate("INSERT INTO sys.columns VALUES (?, ?, ?, ?, ?)", columnRows);
+        jdbcTemplate.batchUpdate("INSERT INTO sys.dm_db_partition_stats VALUES (?, ?, ?)", partitionRows);
+    }
+
+    /**
+     * Records a write to the given tables, as a nightly ETL load would.
+     */
+    public void touchTables(int firstTable, int tables) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (int table = firstTable; table < firstTable + tables; table++) {
+            rows.add(new Object[]{1, table + 1, 1, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sys.dm_db_index_usage_stats VALUES (?, ?, ?, ?)", rows);
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+}
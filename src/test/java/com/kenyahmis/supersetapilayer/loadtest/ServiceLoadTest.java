@@ -0,0 +1,449 @@
+package com.kenyahmis.supersetapilayer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.config.EmailConfig;
+import com.kenyahmis.supersetapilayer.config.HttpClientConfig;
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.metrics.OutboundRequestMetricsInterceptor;
+import com.kenyahmis.supersetapilayer.model.DatasetRefreshSummary;
+import com.kenyahmis.supersetapilayer.model.JobProgress;
+import com.kenyahmis.supersetapilayer.model.SchemaDiff;
+import com.kenyahmis.supersetapilayer.properties.MetadataCacheProperties;
+import com.kenyahmis.supersetapilayer.properties.OpenmetadataApiProperties;
+import com.kenyahmis.supersetapilayer.properties.OutboxProperties;
+import com.kenyahmis.supersetapilayer.properties.RlsProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetDatabaseProperties;
+import com.kenyahmis.supersetapilayer.service.APIService;
+import com.kenyahmis.supersetapilayer.service.DatasetImportService;
+import com.kenyahmis.supersetapilayer.service.EmailOutbox;
+import com.kenyahmis.supersetapilayer.service.EmailService;
+import com.kenyahmis.supersetapilayer.service.GlossaryService;
+import com.kenyahmis.supersetapilayer.service.MetadataCache;
+import com.kenyahmis.supersetapilayer.service.LocalStateStore;
+import com.kenyahmis.supersetapilayer.service.ReportingSchemaLoader;
+import com.kenyahmis.supersetapilayer.service.RlsProvisioningService;
+import com.kenyahmis.supersetapilayer.service.SchemaDiffEngine;
+import com.kenyahmis.supersetapilayer.service.SchemaSnapshotStore;
+import com.kenyahmis.supersetapilayer.service.SupersetDatasetReader;
+import com.kenyahmis.supersetapilayer.service.SupersetMetadataReader;
+import com.kenyahmis.supersetapilayer.service.SupersetTokenManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the dataset operations end to end against in-process stubs of Superset, OpenMetadata, SMTP and the
+ * reporting database, and reports wall-clock time, requests per endpoint and peak heap for each operation.
+ * <p>
+ * Excluded from the default build; run with {@code mvn -Ploadtest test}. Scale and faults are set with system
+ * properties, e.g. {@code -Dloadtest.datasets=5000 -Dloadtest.columns=200 -Dloadtest.latency-millis=20
+ * -Dloadtest.error-rate=0.01}. A time budget per operation fails the run when exceeded, e.g.
+ * {@code -Dloadtest.refresh.max-millis=60000}.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ServiceLoadTest {
+    private static final Pattern PAGE = Pattern.compile("page:(\\d+)");
+    private static final Pattern PAGE_SIZE = Pattern.compile("page_size:(\\d+)");
+    private static final Pattern AFTER = Pattern.compile("after=(\\d+)");
+    private static final Pattern LIMIT = Pattern.compile("limit=(\\d+)");
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final int datasets = Integer.getInteger("loadtest.datasets", 1000);
+    private final int columns = Integer.getInteger("loadtest.columns", 50);
+    private final int newTables = Integer.getInteger("loadtest.new-tables", 50);
+    private final Duration latency = Duration.ofMillis(Long.getLong("loadtest.latency-millis", 5));
+    private final double errorRate = Double.parseDouble(System.getProperty("loadtest.error-rate", "0.01"));
+
+    // Superset dataset id -> table index
+    private final Map<Integer, Integer> supersetDatasets = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextDatasetId = new AtomicInteger();
+    private final List<String> report = new ArrayList<>();
+
+    private StubHttpServer superset;
+    private StubHttpServer openmetadata;
+    private SmtpSink smtpSink;
+    private ReportingDatabaseStub reportingDatabase;
+    private CloseableHttpClient httpClient;
+    private APIService apiService;
+    private EmailOutbox emailOutbox;
+
+    @BeforeAll
+    void startStubs(@TempDir Path dataDir) throws IOException {
+        for (int table = 0; table < datasets; table++) {
+            supersetDatasets.put(nextDatasetId.incrementAndGet(), table);
+        }
+        reportingDatabase = new ReportingDatabaseStub("loadtest");
+        reportingDatabase.addTables(0, datasets + newTables, columns);
+        superset = supersetStub().start();
+        openmetadata = openmetadataStub().start();
+        smtpSink = new SmtpSink();
+        apiService = createApiService(dataDir);
+    }
+
+    @AfterAll
+    void stopStubs() throws IOException {
+        apiService.shutdown();
+        emailOutbox.stop();
+        httpClient.close();
+        superset.close();
+        openmetadata.close();
+        smtpSink.close();
+        String text = String.format("Load test: %d datasets x %d columns, %d new tables, %d ms latency, %.1f%% errors%n",
+                datasets, columns, newTables, latency.toMillis(), errorRate * 100) + String.join("\n", report) + "\n";
+        System.out.println(text);
+        Files.createDirectories(Path.of("target"));
+        Files.writeString(Path.of("target", "load-test-report.txt"), text);
+    }
+
+    @Test
+    @Order(1)
+    void refreshAllDatasets() {
+        DatasetRefreshSummary summary = measure("refresh", () -> apiService.refreshDatasets(false, JobProgress.NONE));
+        assertEquals(datasets, summary.total());
+        assertEquals(datasets, summary.succeeded().size() + summary.failed().size());
+    }
+
+    @Test
+    @Order(2)
+    void refreshChangedDatasets() {
+        DatasetRefreshSummary baseline = apiService.refreshDatasets(true, JobProgress.NONE);
+        int changed = Math.max(1, datasets / 10);
+        reportingDatabase.touchTables(0, changed);
+        DatasetRefreshSummary summary = measure("refresh-changed", () -> apiService.refreshDatasets(true, JobProgress.NONE));
+        assertTrue(summary.total() <= changed + baseline.failed().size(),
+                "Only changed datasets and earlier failures should be refreshed, got " + summary.total());
+    }
+
+    @Test
+    @Order(3)
+    void populateAllDescriptions() {
+        measure("description", () -> {
+            apiService.populateDescriptions(true, false, JobProgress.NONE);
+            return null;
+        });
+        assertFalse(superset.getRequestCounts().isEmpty());
+    }
+
+    @Test
+    @Order(4)
+    void populateChangedDescriptions() {
+        measure("description-incremental", () -> {
+            apiService.populateDescriptions(false, true, JobProgress.NONE);
+            return null;
+        });
+        long reads = superset.getRequestCounts().getOrDefault("GET /api/v1/dataset/{id}", 0L);
+        assertTrue(reads < datasets, "Incremental sync should only read affected datasets, read " + reads);
+    }
+
+    @Test
+    @Order(5)
+    void addNewDatasetsInBulk() {
+        Map<String, String> results = measure("sync", () -> apiService.addNewDatasets(true, JobProgress.NONE));
+        assertEquals(newTables, results.size());
+    }
+
+    @Test
+    @Order(6)
+    void generateChangeLogAgainstSuperset() throws InterruptedException {
+        // Comparing with Superset needs every dataset's columns, so a single failed read fails the run by design
+        superset.setErrorRate(0);
+        int sent = smtpSink.getMessages().size();
+        SchemaDiff diff = measure("changelog", () -> apiService.generateAndShareChangeLog(true));
+        assertFalse(diff.isEmpty());
+        // Delivery is asynchronous, so give the outbox worker a moment
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (smtpSink.getMessages().size() <= sent && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(sent + 1, smtpSink.getMessages().size());
+        assertEquals(0, emailOutbox.size());
+    }
+
+    private <T> T measure(String operation, Supplier<T> call) {
+        superset.resetRequestCounts();
+        openmetadata.resetRequestCounts();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long start = System.nanoTime();
+        T result = call.get();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        report.add(String.format("%-24s %8d ms  peak heap %6d MB  superset %s  openmetadata %s", operation,
+                elapsedMillis, peakHeap / (1024 * 1024), superset.getRequestCounts(), openmetadata.getRequestCounts()));
+        Long budget = Long.getLong("loadtest." + operation + ".max-millis");
+        if (budget != null) {
+            assertTrue(elapsedMillis <= budget,
+                    String.format("%s took %d ms, over its budget of %d ms", operation, elapsedMillis, budget));
+        }
+        return result;
+    }
+
+    private APIService createApiService(Path dataDir) {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        OutboundMetrics outboundMetrics = new OutboundMetrics(new SimpleMeterRegistry());
+        SupersetApiProperties supersetApiProperties = new SupersetApiProperties();
+        supersetApiProperties.setBaseUrl(superset.getBaseUrl());
+        supersetApiProperties.setUsername("admin");
+        supersetApiProperties.setPassword("admin");
+        supersetApiProperties.setProvider("db");
+        supersetApiProperties.setRefresh("true");
+        OpenmetadataApiProperties openmetadataApiProperties = new OpenmetadataApiProperties();
+        openmetadataApiProperties.setBaseUrl(openmetadata.getBaseUrl());
+        openmetadataApiProperties.setGlossaryName(LoadTestData.GLOSSARY);
+        openmetadataApiProperties.setJwtToken("token");
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.setHost("localhost");
+        mailProperties.setPort(smtpSink.getPort());
+        mailProperties.getProperties().put("auth", "false");
+        mailProperties.getProperties().put("starttls", "false");
+        mailProperties.getProperties().put("recipients", "team@example.org");
+
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        httpClient = httpClientConfig.outboundHttpClient(supersetApiProperties, openmetadataApiProperties);
+        RestClient restClient = RestClient.builder()
+                .requestFactory(httpClientConfig.outboundRequestFactory(httpClient, supersetApiProperties,
+                        openmetadataApiProperties))
+                .requestInterceptor(new OutboundRequestMetricsInterceptor(outboundMetrics, supersetApiProperties,
+                        openmetadataApiProperties))
+                .build();
+        SupersetTokenManager tokenManager = new SupersetTokenManager(restClient, supersetApiProperties, objectMapper);
+        MetadataCache metadataCache = new MetadataCache(new MetadataCacheProperties(), outboundMetrics);
+        emailOutbox = new EmailOutbox(new EmailConfig().mailSession(mailProperties), outboundMetrics,
+                new OutboxProperties(), objectMapper, dataDir.resolve("outbox"));
+        emailOutbox.start();
+        EmailService emailService = new EmailService(emailOutbox);
+        return new APIService(restClient, supersetApiProperties, mailProperties, emailService,
+                new ReportingSchemaLoader(reportingDatabase.getJdbcTemplate(), outboundMetrics), tokenManager,
+                new GlossaryService(restClient, openmetadataApiProperties, metadataCache),
+                new LocalStateStore(objectMapper, dataDir),
+                new SupersetMetadataReader(reportingDatabase.getJdbcTemplate(), outboundMetrics),
+                new SupersetDatabaseProperties(), new SchemaDiffEngine(),
+                new SchemaSnapshotStore(dataDir.resolve("snapshots"), Duration.ofDays(90)),
+                new DatasetImportService(restClient, supersetApiProperties, tokenManager),
+                new SupersetDatasetReader(restClient, supersetApiProperties, tokenManager, objectMapper, metadataCache),
+                new RlsProvisioningService(restClient, supersetApiProperties, tokenManager, new RlsProperties()),
+                objectMapper);
+    }
+
+    private StubHttpServer supersetStub() throws IOException {
+        return new StubHttpServer(latency, errorRate)
+                .reliableRoute("POST", "/api/v1/security/login", request -> StubHttpServer.Response.json(
+                        String.format("{\"access_token\":\"%s\",\"refresh_token\":\"%s\"}", jwt(), jwt())))
+                .reliableRoute("POST", "/api/v1/security/refresh", request -> StubHttpServer.Response.json(
+                        String.format("{\"access_token\":\"%s\"}", jwt())))
+                .reliableRoute("GET", "/api/v1/dataset/?", this::datasetPage)
+                .route("GET", "/api/v1/dataset/(\\d+)", request -> datasetDetail(Integer.parseInt(request.pathGroups()[0])))
+                .route("PUT", "/api/v1/dataset/(\\d+)/refresh", request -> StubHttpServer.Response.json("{\"message\":\"OK\"}"))
+                .route("PUT", "/api/v1/dataset/(\\d+)", this::updateDataset)
+                .route("POST", "/api/v1/dataset/?", this::createDataset)
+                .reliableRoute("GET", "/api/v1/database/export/?", request -> databaseExport())
+                .route("POST", "/api/v1/dataset/import/?", this::importDatasets);
+    }
+
+    private StubHttpServer openmetadataStub() throws IOException {
+        return new StubHttpServer(latency, errorRate)
+                .reliableRoute("GET", "/api/v1/glossaries/name/.+", request -> StubHttpServer.Response.json(
+                        "{\"id\":\"glossary\"}"))
+                .reliableRoute("GET", "/api/v1/glossaryTerms/name/" + LoadTestData.GLOSSARY + "\\.Table(\\d+)",
+                        request -> StubHttpServer.Response.json(String.format(
+                                "{\"id\":\"%s\",\"fullyQualifiedName\":\"%s.%s\",\"description\":\"Updated table %s\"}",
+                                request.pathGroups()[0], LoadTestData.GLOSSARY,
+                                LoadTestData.tableName(Integer.parseInt(request.pathGroups()[0])), request.pathGroups()[0])))
+                .reliableRoute("GET", "/api/v1/glossaryTerms/?", this::glossaryTermPage)
+                .reliableRoute("GET", "/api/v1/events/?", request -> {
+                    StringBuilder events = new StringBuilder("{\"data\":[");
+                    int changed = Math.max(1, datasets / 50);
+                    for (int table = 0; table < changed; table++) {
+                        events.append(table == 0 ? "" : ",").append(String.format(
+                                "{\"eventType\":\"entityUpdated\",\"entityType\":\"glossaryTerm\",\"entityFullyQualifiedName\":\"%s.%s.%s\"}",
+                                LoadTestData.GLOSSARY, LoadTestData.tableName(table), LoadTestData.columnName(0)));
+                    }
+                    return StubHttpServer.Response.json(events.append("]}").toString());
+                });
+    }
+
+    private StubHttpServer.Response datasetPage(StubHttpServer.Request request) {
+        int page = intParam(PAGE, request.query(), 0);
+        int pageSize = intParam(PAGE_SIZE, request.query(), 100);
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(supersetDatasets.entrySet());
+        StringBuilder json = new StringBuilder("{\"count\":").append(entries.size()).append(",\"result\":[");
+        for (int i = page * pageSize; i < Math.min(entries.size(), (page + 1) * pageSize); i++) {
+            json.append(i == page * pageSize ? "" : ",").append("{\"id\":").append(entries.get(i).getKey())
+                    .append(",\"schema\":\"dbo\",\"table_name\":\"").append(LoadTestData.tableName(entries.get(i).getValue()))
+                    .append("\"}");
+        }
+        return StubHttpServer.Response.json(json.append("]}").toString());
+    }
+
+    private StubHttpServer.Response datasetDetail(int id) {
+        Integer table = supersetDatasets.get(id);
+        if (table == null) {
+            return new StubHttpServer.Response(404, "application/json", "{\"message\":\"Not found\"}");
+        }
+        StringBuilder json = new StringBuilder(columns * 400);
+        json.append("{\"id\":").append(id).append(",\"result\":{\"table_name\":\"").append(LoadTestData.tableName(table))
+                .append("\",\"sql\":null,\"metrics\":[{\"metric_name\":\"count\",\"expression\":\"COUNT(*)\"}],")
+                .append("\"owners\":[{\"id\":1}],\"columns\":[");
+        for (int column = 0; column < columns; column++) {
+            // Every tenth column drifted in Superset so the changelog has something to report
+            String type = column % 10 == 9 ? "VARCHAR" : LoadTestData.SUPERSET_TYPES[column % LoadTestData.SUPERSET_TYPES.length];
+            json.append(column == 0 ? "" : ",").append("{\"id\":").append(column + 1)
+                    .append(",\"column_name\":\"").append(LoadTestData.columnName(column))
+                    .append("\",\"type\":\"").append(type)
+                    .append("\",\"type_generic\":1,\"verbose_name\":null,\"description\":null,\"expression\":null,")
+                    .append("\"filterable\":true,\"groupby\":true,\"is_active\":true,\"is_dttm\":false,\"extra\":null,")
+                    .append("\"changed_on\":\"2024-01-01T00:00:00\",\"created_on\":\"2024-01-01T00:00:00\"}");
+        }
+        return StubHttpServer.Response.json(json.append("]}}").toString());
+    }
+
+    private StubHttpServer.Response updateDataset(StubHttpServer.Request request) throws IOException {
+        JsonNode body = JSON.readTree(request.body());
+        if (body.size() == 1 && body.path("owners").isArray()) {
+            return StubHttpServer.Response.json("{\"result\":{}}");
+        }
+        if (!body.path("description").isTextual() || body.path("columns").isEmpty()
+                || !body.path("columns").get(0).hasNonNull("column_name")) {
+            return new StubHttpServer.Response(400, "application/json", "{\"message\":\"Invalid dataset update\"}");
+        }
+        return StubHttpServer.Response.json("{\"result\":{}}");
+    }
+
+    private StubHttpServer.Response createDataset(StubHttpServer.Request request) {
+        Matcher tableName = Pattern.compile("\"table_name\":\"Table(\\d+)\"")
+                .matcher(new String(request.body(), StandardCharsets.UTF_8));
+        if (!tableName.find()) {
+            return new StubHttpServer.Response(400, "application/json", "{\"message\":\"table_name is required\"}");
+        }
+        int id = nextDatasetId.incrementAndGet();
+        supersetDatasets.put(id, Integer.parseInt(tableName.group(1)));
+        return new StubHttpServer.Response(201, "application/json", "{\"id\":" + id + "}");
+    }
+
+    private StubHttpServer.Response databaseExport() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("database_export/databases/REPORTING.yaml"));
+            zip.write("database_name: REPORTING\nuuid: 11111111-1111-1111-1111-111111111111\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return new StubHttpServer.Response(200, "application/zip", bytes.toByteArray());
+    }
+
+    // The multipart body is scanned for the zip's local file headers rather than parsed properly
+    private StubHttpServer.Response importDatasets(StubHttpServer.Request request) throws IOException {
+        byte[] body = request.body();
+        int zipStart = indexOf(body, new byte[]{'P', 'K', 3, 4});
+        if (zipStart < 0) {
+            return new StubHttpServer.Response(400, "application/json", "{\"message\":\"No bundle\"}");
+        }
+        Pattern datasetEntry = Pattern.compile(".*/datasets/.+/Table(\\d+)\\.yaml");
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(body, zipStart, body.length - zipStart))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                Matcher matcher = datasetEntry.matcher(entry.getName());
+                if (matcher.matches()) {
+                    supersetDatasets.put(nextDatasetId.incrementAndGet(), Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        return StubHttpServer.Response.json("{\"message\":\"OK\"}");
+    }
+
+    // Terms are listed tables first, each table followed by its columns; "after" is the offset of the next term
+    private StubHttpServer.Response glossaryTermPage(StubHttpServer.Request request) {
+        int limit = intParam(LIMIT, request.query(), 10);
+        int after = intParam(AFTER, request.query(), 0);
+        boolean byParent = request.query().contains("parent=");
+        int parent = byParent ? Integer.parseInt(request.query().replaceAll(".*parent=(\\d+).*", "$1")) : -1;
+        int termsPerTable = columns + 1;
+        int total = byParent ? columns : (datasets + newTables) * termsPerTable;
+        StringBuilder json = new StringBuilder("{\"data\":[");
+        int end = Math.min(total, after + limit);
+        for (int term = after; term < end; term++) {
+            int table = byParent ? parent : term / termsPerTable;
+            int column = byParent ? term : term % termsPerTable - 1;
+            String fqn = LoadTestData.GLOSSARY + "." + LoadTestData.tableName(table)
+                    + (column < 0 ? "" : "." + LoadTestData.columnName(column));
+            json.append(term == after ? "" : ",").append("{\"id\":\"").append(term)
+                    .append("\",\"fullyQualifiedName\":\"").append(fqn)
+                    .append("\",\"description\":\"Description of ").append(fqn).append("\"}");
+        }
+        json.append("],\"paging\":{\"total\":").append(total);
+        if (end < total) {
+            json.append(",\"after\":\"").append(end).append('"');
+        }
+        return StubHttpServer.Response.json(json.append("}}").toString());
+    }
+
+    private static int intParam(Pattern pattern, String query, int defaultValue) {
+        Matcher matcher = pattern.matcher(query);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : defaultValue;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static String jwt() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String claims = String.format("{\"exp\":%d}", Instant.now().plus(Duration.ofHours(1)).getEpochSecond());
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".";
+    }
+}
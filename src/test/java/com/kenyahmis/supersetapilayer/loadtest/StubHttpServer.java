@@ -0,0 +1,165 @@
+package com.kenyahmis.supersetapilayer.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process HTTP server with regex routes, a fixed injected latency and a random error rate. Requests are counted
+ * per endpoint, with numeric path segments collapsed to {@code {id}}.
+ */
+public class StubHttpServer implements AutoCloseable {
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final Duration latency;
+    private volatile double errorRate;
+
+    static {
+        // Without this the JDK server's small writes hit Nagle's algorithm and delayed ACKs, adding ~40 ms per request
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public StubHttpServer(Duration latency, double errorRate) throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.executor = Executors.newFixedThreadPool(64);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Registers a handler for requests whose method matches and whose path matches {@code pathPattern} in full.
+     * Regex groups of the path are passed to the handler. The route fails at the configured error rate.
+     */
+    public StubHttpServer route(String method, String pathPattern, Handler handler) {
+        routes.add(new Route(method, Pattern.compile(pathPattern), handler, true));
+        return this;
+    }
+
+    /**
+     * Registers a route that never fails, for calls whose failure would abort a whole run, such as login.
+     */
+    public StubHttpServer reliableRoute(String method, String pathPattern, Handler handler) {
+        routes.add(new Route(method, Pattern.compile(pathPattern), handler, false));
+        return this;
+    }
+
+    public StubHttpServer start() {
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        requestCounts.forEach((endpoint, count) -> counts.put(endpoint, count.sum()));
+        return counts;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void resetRequestCounts() {
+        requestCounts.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            requestCounts.computeIfAbsent(method + " " + ID_SEGMENT.matcher(path).replaceAll("/{id}"),
+                    endpoint -> new LongAdder()).increment();
+            byte[] requestBody;
+            try (InputStream in = exchange.getRequestBody()) {
+                requestBody = in.readAllBytes();
+            }
+            if (!latency.isZero()) {
+                Thread.sleep(latency.toMillis());
+            }
+            for (Route route : routes) {
+                Matcher matcher = route.path().matcher(path);
+                if (route.method().equals(method) && matcher.matches()) {
+                    if (route.injectFailures() && errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                        respond(exchange, new Response(500, "application/json", "{\"message\":\"injected failure\"}"));
+                        return;
+                    }
+                    String[] groups = new String[matcher.groupCount()];
+                    for (int group = 0; group < groups.length; group++) {
+                        groups[group] = matcher.group(group + 1);
+                    }
+                    String query = exchange.getRequestURI().getQuery();
+                    respond(exchange, route.handler().handle(new Request(groups, query == null ? "" : query, requestBody)));
+                    return;
+                }
+            }
+            respond(exchange, new Response(404, "application/json", "{\"message\":\"Not found\"}"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body();
+        exchange.getResponseHeaders().add("Content-Type", response.contentType());
+        exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Handler {
+        Response handle(Request request) throws IOException;
+    }
+
+    public record Request(String[] pathGroups, String query, byte[] body) {
+    }
+
+    public record Response(int status, String contentType, byte[] body) {
+
+        public Response(int status, String contentType, String body) {
+            this(status, contentType, body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Response json(String body) {
+            return new Response(200, "application/json", body);
+        }
+    }
+
+    private record Route(String method, Pattern path, Handler handler, boolean injectFailures) {
+    }
+}
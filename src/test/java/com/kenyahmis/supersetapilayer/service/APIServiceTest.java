@@ -0,0 +1,337 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.model.ColumnSchema;
+import com.kenyahmis.supersetapilayer.model.DatasetRefreshSummary;
+import com.kenyahmis.supersetapilayer.model.GlossaryIndex;
+import com.kenyahmis.supersetapilayer.model.JobProgress;
+import com.kenyahmis.supersetapilayer.model.SchemaDiff;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import com.kenyahmis.supersetapilayer.model.TableActivity;
+import com.kenyahmis.supersetapilayer.properties.MetadataCacheProperties;
+import com.kenyahmis.supersetapilayer.properties.OpenmetadataApiProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
+import com.kenyahmis.supersetapilayer.properties.SupersetDatabaseProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class APIServiceTest {
+    private static final Pattern DATASET_PATH = Pattern.compile("/api/v1/dataset/(\\d+)(/refresh)?");
+    private static final Map<Integer, String> DATASETS = Map.of(1, "Linelist", 2, "Visits");
+
+    @TempDir
+    private Path dataDir;
+    private HttpServer server;
+    private SchemaSnapshotStore snapshotStore;
+    private LocalStateStore localStateStore;
+    private APIService apiService;
+    private SchemaSnapshot reportingSchema;
+    private boolean emailFails;
+    private Set<String> changedTables = Set.of();
+    private Map<String, TableActivity> tableActivity = Map.of();
+    private final List<String> listings = new ArrayList<>();
+    private final List<Integer> refreshes = new ArrayList<>();
+    private final List<String> emails = new ArrayList<>();
+    private final Set<Integer> failingUpdates = ConcurrentHashMap.newKeySet();
+    private final List<Integer> updates = new ArrayList<>();
+    private final Map<Integer, String> supersetDescriptions = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @BeforeEach
+    void createService() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/dataset/", this::supersetDataset);
+        server.start();
+        SupersetApiProperties supersetApiProperties = new SupersetApiProperties();
+        supersetApiProperties.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        RestClient restClient = RestClient.create();
+        SupersetTokenManager tokenManager = new SupersetTokenManager(null, supersetApiProperties, null) {
+            @Override
+            public <T> T withAccessToken(Function<String, T> call) {
+                return call.apply("token");
+            }
+        };
+        GlossaryService glossaryService = new GlossaryService(null, new OpenmetadataApiProperties(), null) {
+            @Override
+            public Optional<Set<String>> getChangedTables(Instant since) {
+                return Optional.of(changedTables);
+            }
+
+            @Override
+            public GlossaryIndex loadGlossaryIndex(Set<String> tableNames) {
+                GlossaryIndex index = new GlossaryIndex("Dictionary");
+                tableNames.forEach(table -> index.put("Dictionary." + table, table + " description"));
+                return index;
+            }
+        };
+        // Revalidated on every read, as a dataset edited in Superset would be once the fresh period is over
+        MetadataCacheProperties metadataCacheProperties = new MetadataCacheProperties();
+        metadataCacheProperties.setFreshFor(Duration.ZERO);
+        MetadataCache metadataCache = new MetadataCache(metadataCacheProperties,
+                new OutboundMetrics(new SimpleMeterRegistry()));
+        localStateStore = new LocalStateStore(objectMapper, dataDir);
+        snapshotStore = new SchemaSnapshotStore(dataDir.resolve("snapshots"), Duration.ofDays(90));
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.getProperties().put("recipients", "team@example.org");
+        ReportingSchemaLoader reportingSchemaLoader = new ReportingSchemaLoader(null, null) {
+            @Override
+            public SchemaSnapshot load() {
+                return reportingSchema;
+            }
+
+            @Override
+            public Map<String, TableActivity> loadTableActivity() {
+                return tableActivity;
+            }
+        };
+        EmailService emailService = new EmailService(null) {
+            @Override
+            public void sendEmail(String from, String to, String subject, String text) {
+                if (emailFails) {
+                    throw new IllegalStateException("Outbox unavailable");
+                }
+                emails.add(text);
+            }
+        };
+        apiService = new APIService(restClient, supersetApiProperties, mailProperties, emailService,
+                reportingSchemaLoader, tokenManager, glossaryService, localStateStore, null,
+                new SupersetDatabaseProperties(), new SchemaDiffEngine(), snapshotStore, null,
+                new SupersetDatasetReader(restClient, supersetApiProperties, tokenManager, objectMapper, metadataCache),
+                null, objectMapper);
+    }
+
+    @AfterEach
+    void stopService() {
+        apiService.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void sharesAChangeToASingleTable() {
+        snapshotStore.save(schema("PatientPK"));
+        reportingSchema = schema("PatientPK", "Gender");
+
+        SchemaDiff diff = apiService.generateAndShareChangeLog(false);
+
+        assertEquals(1, diff.changedTables().size());
+        assertEquals(1, emails.size());
+        assertTrue(emails.get(0).contains("- New columns in Linelist: [Gender]"));
+        assertEquals(Set.of("PatientPK", "Gender"), columnNames(latestSnapshot()));
+    }
+
+    @Test
+    void sendsNothingWithoutChanges() {
+        snapshotStore.save(schema("PatientPK"));
+        reportingSchema = schema("PatientPK");
+
+        assertTrue(apiService.generateAndShareChangeLog(false).isEmpty());
+        assertTrue(emails.isEmpty());
+    }
+
+    @Test
+    void keepsThePreviousSnapshotWhenTheChangeLogCannotBeQueued() {
+        snapshotStore.save(schema("PatientPK"));
+        reportingSchema = schema("PatientPK", "Gender");
+        emailFails = true;
+
+        assertThrows(IllegalStateException.class, () -> apiService.generateAndShareChangeLog(false));
+        assertEquals(Set.of("PatientPK"), columnNames(latestSnapshot()));
+
+        emailFails = false;
+        apiService.generateAndShareChangeLog(false);
+        assertEquals(1, emails.size());
+    }
+
+    @Test
+    void advancesTheEventCursorPastFailuresAndRetriesThemNextRun() {
+        Instant initialCursor = Instant.now().minus(Duration.ofHours(1));
+        localStateStore.write("glossary-events-cursor", initialCursor);
+        changedTables = Set.of("Linelist", "Visits");
+        failingUpdates.add(2);
+
+        apiService.populateDescriptions(false, true, new TestProgress());
+
+        assertTrue(readCursor().isAfter(initialCursor));
+        assertEquals(Set.of(2), readRetry());
+
+        // The next run has no new events, but still picks up the dataset that failed
+        Instant previousCursor = readCursor();
+        changedTables = Set.of();
+        failingUpdates.clear();
+        updates.clear();
+        apiService.populateDescriptions(false, true, new TestProgress());
+
+        assertEquals(List.of(2), updates);
+        assertEquals(Set.of(), readRetry());
+        assertFalse(readCursor().isBefore(previousCursor));
+    }
+
+    @Test
+    void updatesOnlyDatasetsWhoseDescriptionsDifferInSuperset() {
+        localStateStore.write("glossary-events-cursor", Instant.now().minus(Duration.ofHours(1)));
+        changedTables = Set.of("Linelist");
+
+        apiService.populateDescriptions(false, true, new TestProgress());
+        assertEquals(List.of(1), updates);
+        assertEquals("Linelist description", supersetDescriptions.get(1));
+
+        // Superset already holds the glossary descriptions
+        apiService.populateDescriptions(false, true, new TestProgress());
+        assertEquals(List.of(1), updates);
+
+        // Someone edited the description in Superset
+        supersetDescriptions.put(1, "Edited in Superset");
+        apiService.populateDescriptions(false, true, new TestProgress());
+        assertEquals(List.of(1, 1), updates);
+        assertEquals("Linelist description", supersetDescriptions.get(1));
+    }
+
+    @Test
+    void leavesTheEventCursorAloneWhenCancelled() {
+        Instant initialCursor = Instant.now().minus(Duration.ofHours(1));
+        localStateStore.write("glossary-events-cursor", initialCursor);
+        changedTables = Set.of("Linelist");
+        TestProgress cancelled = new TestProgress();
+        cancelled.cancelled = true;
+
+        apiService.populateDescriptions(false, true, cancelled);
+
+        assertEquals(initialCursor, readCursor());
+        assertTrue(updates.isEmpty());
+    }
+
+    @Test
+    void matchesChangeSignalsBySchemaWithinTheReportingDatabase() {
+        Instant loaded = Instant.now().minus(Duration.ofDays(1));
+        TableActivity linelist = new TableActivity("dbo", "Linelist", loaded, 100);
+        TableActivity visits = new TableActivity("dbo", "Visits", loaded, 50);
+        localStateStore.write("refresh-watermarks", Map.of("1", linelist, "2", visits));
+        // A same-named table in another schema changed, the reporting tables did not
+        tableActivity = Map.of("dbo.Linelist", linelist, "dbo.Visits", visits,
+                "staging.Linelist", new TableActivity("staging", "Linelist", Instant.now(), 999));
+
+        DatasetRefreshSummary unchanged = apiService.refreshDatasets(true, new TestProgress());
+
+        assertEquals(2, unchanged.unchanged());
+        assertTrue(refreshes.isEmpty());
+        assertTrue(listings.get(0).contains("(col:database,opr:rel_o_m,value:2)"), listings.get(0));
+        assertTrue(listings.get(0).contains("order_column:id,order_direction:asc"), listings.get(0));
+
+        tableActivity = Map.of("dbo.Linelist", linelist, "dbo.Visits", new TableActivity("dbo", "Visits",
+                Instant.now(), 60));
+        DatasetRefreshSummary changed = apiService.refreshDatasets(true, new TestProgress());
+
+        assertEquals(List.of(2), changed.succeeded());
+        assertEquals(List.of(2), refreshes);
+    }
+
+    private Instant readCursor() {
+        return localStateStore.read("glossary-events-cursor", new TypeReference<Instant>() {}, () -> null);
+    }
+
+    private Set<Integer> readRetry() {
+        return localStateStore.read("description-retry", new TypeReference<Set<Integer>>() {}, HashSet::new);
+    }
+
+    private void supersetDataset(HttpExchange exchange) throws IOException {
+        Matcher dataset = DATASET_PATH.matcher(exchange.getRequestURI().getPath());
+        if (!dataset.matches()) {
+            synchronized (listings) {
+                listings.add(exchange.getRequestURI().getQuery());
+            }
+            StringBuilder page = new StringBuilder("{\"count\": ").append(DATASETS.size()).append(", \"result\": [");
+            DATASETS.forEach((id, table) -> page.append(page.charAt(page.length() - 1) == '[' ? "" : ",")
+                    .append(String.format("{\"id\": %d, \"schema\": \"dbo\", \"table_name\": \"%s\"}", id, table)));
+            respond(exchange, 200, page.append("]}").toString());
+            return;
+        }
+        int id = Integer.parseInt(dataset.group(1));
+        if (dataset.group(2) != null) {
+            synchronized (refreshes) {
+                refreshes.add(id);
+            }
+            respond(exchange, 200, "{\"message\": \"OK\"}");
+        } else if (exchange.getRequestMethod().equals("GET")) {
+            String description = supersetDescriptions.get(id);
+            respond(exchange, 200, String.format("""
+                    {"id": %d, "result": {"table_name": "%s", "description": %s,
+                     "columns": [{"id": 1, "column_name": "PatientPK"}]}}
+                    """, id, DATASETS.get(id), description == null ? "null" : objectMapper.writeValueAsString(description)));
+        } else if (failingUpdates.contains(id)) {
+            respond(exchange, 500, "{\"message\": \"Internal error\"}");
+        } else {
+            synchronized (updates) {
+                updates.add(id);
+            }
+            supersetDescriptions.put(id, objectMapper.readTree(exchange.getRequestBody()).path("description").textValue());
+            respond(exchange, 200, "{\"result\": {}}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private SchemaSnapshot latestSnapshot() {
+        return snapshotStore.load(snapshotStore.latest().orElseThrow().id()).orElseThrow();
+    }
+
+    private static SchemaSnapshot schema(String... columns) {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        for (int i = 0; i < columns.length; i++) {
+            snapshot.addColumn("Linelist", new ColumnSchema(columns[i], "nvarchar", i + 1, true));
+        }
+        return snapshot;
+    }
+
+    private static Set<String> columnNames(SchemaSnapshot snapshot) {
+        return snapshot.getColumns("Linelist").keySet();
+    }
+
+    private static class TestProgress implements JobProgress {
+        private boolean cancelled;
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
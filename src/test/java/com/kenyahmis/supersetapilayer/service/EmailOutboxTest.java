@@ -0,0 +1,165 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.loadtest.SmtpSink;
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.model.OutboxMessage;
+import com.kenyahmis.supersetapilayer.properties.OutboxProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailOutboxTest {
+    private static final String FROM = "noreply@example.org";
+
+    @TempDir
+    private Path outboxDir;
+    private SmtpSink smtpSink;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final OutboxProperties outboxProperties = new OutboxProperties();
+    private final List<EmailOutbox> outboxes = new ArrayList<>();
+
+    @BeforeEach
+    void startSink() throws IOException {
+        smtpSink = new SmtpSink();
+        outboxProperties.setPollInterval(Duration.ofMillis(20));
+        outboxProperties.setInitialBackoff(Duration.ofMillis(50));
+        outboxProperties.setMaxBackoff(Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void stopOutboxes() throws IOException {
+        outboxes.forEach(EmailOutbox::stop);
+        smtpSink.close();
+    }
+
+    @Test
+    void retriesAfterAFailingSend() throws Exception {
+        smtpSink.failNextMessage("451 4.3.0 Try again later");
+        EmailOutbox outbox = startOutbox(smtpSink.getPort());
+
+        outbox.enqueue(FROM, "analyst@example.org", "Change log", "body");
+
+        waitUntil(() -> smtpSink.getMessages().size() == 1 && outbox.size() == 0);
+        assertEquals(1, files(outboxDir.resolve("sent")).size());
+        assertTrue(files(outboxDir.resolve("dead")).isEmpty());
+    }
+
+    @Test
+    void deliversMessagesLeftInTheOutboxByAnEarlierRun() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = socket.getLocalPort();
+        }
+        EmailOutbox unreachable = startOutbox(closedPort);
+        unreachable.enqueue(FROM, "analyst@example.org", "Change log", "body");
+        waitUntil(() -> read(files(outboxDir).get(0)).attempts() >= 1);
+        unreachable.stop();
+
+        EmailOutbox restarted = startOutbox(smtpSink.getPort());
+
+        waitUntil(() -> smtpSink.getMessages().size() == 1 && restarted.size() == 0);
+    }
+
+    @Test
+    void deadLettersPermanentFailuresWithoutRetrying() throws Exception {
+        smtpSink.failNextMessage("554 5.7.1 Message rejected");
+        EmailOutbox outbox = startOutbox(smtpSink.getPort());
+
+        outbox.enqueue(FROM, "analyst@example.org", "Change log", "body");
+
+        waitUntil(() -> files(outboxDir.resolve("dead")).size() == 1);
+        OutboxMessage deadLetter = read(files(outboxDir.resolve("dead")).get(0));
+        assertEquals(1, deadLetter.attempts());
+        assertEquals(0, outbox.size());
+        assertTrue(smtpSink.getMessages().isEmpty());
+    }
+
+    @Test
+    void keepsOnlyTheRecipientsThatFailed() throws Exception {
+        smtpSink.rejectRecipient("gone@example.org");
+        EmailOutbox outbox = startOutbox(smtpSink.getPort());
+
+        outbox.enqueue(FROM, "analyst@example.org, gone@example.org", "Change log", "body");
+
+        waitUntil(() -> smtpSink.getMessages().size() == 1 && outbox.size() == 0);
+        assertTrue(smtpSink.getMessages().get(0).contains("To: analyst@example.org\n"));
+        List<Path> deadLetters = files(outboxDir.resolve("dead"));
+        assertEquals(1, deadLetters.size());
+        assertEquals("gone@example.org", read(deadLetters.get(0)).to());
+    }
+
+    @Test
+    void reconnectsAfterTheServerDropsAnIdleConnection() throws Exception {
+        EmailOutbox outbox = startOutbox(smtpSink.getPort());
+        outbox.enqueue(FROM, "analyst@example.org", "First", "body");
+        waitUntil(() -> smtpSink.getMessages().size() == 1);
+
+        smtpSink.dropConnections();
+        outbox.enqueue(FROM, "analyst@example.org", "Second", "body");
+
+        waitUntil(() -> smtpSink.getMessages().size() == 2 && outbox.size() == 0);
+        assertEquals(2, smtpSink.getConnections());
+        assertTrue(files(outboxDir.resolve("dead")).isEmpty());
+    }
+
+    private EmailOutbox startOutbox(int smtpPort) {
+        Properties props = new Properties();
+        props.put("mail.smtp.host", "localhost");
+        props.put("mail.smtp.port", smtpPort);
+        props.put("mail.smtp.connectiontimeout", 2000);
+        props.put("mail.smtp.timeout", 2000);
+        EmailOutbox outbox = new EmailOutbox(Session.getInstance(props),
+                new OutboundMetrics(new SimpleMeterRegistry()), outboxProperties, objectMapper, outboxDir);
+        outboxes.add(outbox);
+        outbox.start();
+        return outbox;
+    }
+
+    private OutboxMessage read(Path file) {
+        try {
+            return objectMapper.readValue(file.toFile(), OutboxMessage.class);
+        } catch (IOException e) {
+            throw new AssertionError("Unreadable outbox entry " + file, e);
+        }
+    }
+
+    private static List<Path> files(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json")).sorted().toList();
+        } catch (IOException e) {
+            throw new AssertionError("Failed to list " + dir, e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean(), "Condition not met within 10 seconds");
+    }
+}
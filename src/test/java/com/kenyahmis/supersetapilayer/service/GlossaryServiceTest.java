@@ -0,0 +1,85 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.properties.MetadataCacheProperties;
+import com.kenyahmis.supersetapilayer.properties.OpenmetadataApiProperties;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GlossaryServiceTest {
+    private HttpServer server;
+    private GlossaryService glossaryService;
+    private final AtomicReference<String> lastQuery = new AtomicReference<>();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/events", exchange -> {
+            lastQuery.set(exchange.getRequestURI().getRawQuery());
+            byte[] body = """
+                    {"data": [
+                      {"eventType": "entityUpdated", "entityType": "glossaryTerm",
+                       "entityFullyQualifiedName": "Dictionary.Linelist.Gender", "timestamp": 1700000000000},
+                      {"eventType": "entityCreated", "entityType": "glossaryTerm",
+                       "entityFullyQualifiedName": "Dictionary.Visits", "timestamp": 1700000000001},
+                      {"eventType": "entityUpdated", "entityType": "glossaryTerm",
+                       "entityFullyQualifiedName": "Other.Linelist", "timestamp": 1700000000002}
+                    ]}
+                    """.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        OpenmetadataApiProperties properties = new OpenmetadataApiProperties();
+        properties.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        properties.setGlossaryName("Dictionary");
+        properties.setJwtToken("token");
+        glossaryService = new GlossaryService(RestClient.create(), properties,
+                new MetadataCache(new MetadataCacheProperties(), new OutboundMetrics(new SimpleMeterRegistry())));
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void mapsGlossaryTermEventsToTables() {
+        Instant since = Instant.now().minus(Duration.ofHours(1));
+
+        Optional<Set<String>> tables = glossaryService.getChangedTables(since);
+
+        assertEquals(Optional.of(Set.of("Linelist", "Visits")), tables);
+        assertTrue(lastQuery.get().contains("entityUpdated=glossaryTerm"));
+        assertTrue(lastQuery.get().contains("timestamp=" + since.toEpochMilli()));
+    }
+
+    @Test
+    void requiresFullSyncWhenCursorIsTooOld() {
+        Optional<Set<String>> tables = glossaryService.getChangedTables(Instant.now().minus(Duration.ofDays(30)));
+
+        assertTrue(tables.isEmpty());
+        assertNull(lastQuery.get());
+    }
+}
@@ -0,0 +1,84 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.model.Job;
+import com.kenyahmis.supersetapilayer.properties.JobProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobServiceTest {
+    private JobService jobService;
+
+    @BeforeEach
+    void createService() {
+        JobProperties jobProperties = new JobProperties();
+        jobProperties.setMaxConcurrent(1);
+        jobService = new JobService(jobProperties, new OutboundMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void stopService() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void cancelledQueuedJobsNeverRunAndFreeTheirKey() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Job blocker = jobService.submit("refresh", progress -> await(release));
+        AtomicInteger runs = new AtomicInteger();
+        Job queued = jobService.submit("description", progress -> runs.incrementAndGet());
+
+        jobService.cancel(queued.getId());
+
+        assertEquals(Job.JobStatus.CANCELLED, queued.getStatus());
+        Job resubmitted = jobService.submit("description", progress -> runs.incrementAndGet());
+        assertNotEquals(queued.getId(), resubmitted.getId());
+        assertEquals(resubmitted, jobService.submit("description", progress -> runs.incrementAndGet()));
+
+        release.countDown();
+        waitUntilFinished(resubmitted);
+        waitUntilFinished(blocker);
+        assertEquals(Job.JobStatus.SUCCEEDED, resubmitted.getStatus());
+        assertEquals(1, runs.get());
+        assertEquals(Job.JobStatus.CANCELLED, queued.getStatus());
+        assertNull(queued.getStartedAt());
+    }
+
+    @Test
+    void jobsCancelledBeforeStartingCannotBeStarted() {
+        Job job = new Job("1", "refresh");
+
+        assertTrue(job.cancelIfQueued());
+        assertFalse(job.start());
+        assertEquals(Job.JobStatus.CANCELLED, job.getStatus());
+    }
+
+    private static Object await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static void waitUntilFinished(Job job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished(), "Job did not finish: " + job.getOperation());
+    }
+}
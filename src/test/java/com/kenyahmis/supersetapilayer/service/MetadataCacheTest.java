@@ -0,0 +1,115 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.properties.MetadataCacheProperties;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetadataCacheTest {
+    private HttpServer server;
+    private String uri;
+    private final AtomicReference<String> etag = new AtomicReference<>("\"v1\"");
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private final AtomicInteger parses = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MetadataCacheProperties properties = new MetadataCacheProperties();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/document", exchange -> {
+            String current = etag.get();
+            exchange.getResponseHeaders().add("ETag", current);
+            if (current.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedResponses.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            fullResponses.incrementAndGet();
+            byte[] body = current.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        uri = "http://localhost:" + server.getAddress().getPort() + "/document";
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void servesFreshEntriesWithoutRequests() {
+        MetadataCache cache = new MetadataCache(properties, new OutboundMetrics(meterRegistry));
+
+        assertEquals("\"v1\"", get(cache));
+        assertEquals("\"v1\"", get(cache));
+
+        assertEquals(1, fullResponses.get());
+        assertEquals(1, parses.get());
+        assertEquals(1, count("hit"));
+    }
+
+    @Test
+    void revalidatesStaleEntriesWithTheirEtag() {
+        properties.setFreshFor(Duration.ZERO);
+        MetadataCache cache = new MetadataCache(properties, new OutboundMetrics(meterRegistry));
+
+        get(cache);
+        assertEquals("\"v1\"", get(cache));
+        assertEquals(1, notModifiedResponses.get());
+        assertEquals(1, parses.get());
+
+        etag.set("\"v2\"");
+        assertEquals("\"v2\"", get(cache));
+        assertEquals(2, fullResponses.get());
+        assertEquals(1, count("revalidated"));
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() {
+        properties.setMaxEntries(1);
+        MetadataCache cache = new MetadataCache(properties, new OutboundMetrics(meterRegistry));
+
+        get(cache);
+        cache.get("test", "other", validators -> new MetadataCache.Fetched<>("other", null, -1, false));
+        get(cache);
+
+        assertEquals(2, fullResponses.get());
+        assertEquals(1, cache.size());
+    }
+
+    private String get(MetadataCache cache) {
+        return cache.get("test", uri, validators -> RestClient.create().get()
+                .uri(uri)
+                .headers(headers -> headers.addAll(validators))
+                .exchange((request, response) -> MetadataCache.fetched(response, ok -> {
+                    parses.incrementAndGet();
+                    return new String(ok.getBody().readAllBytes(), StandardCharsets.UTF_8);
+                })));
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("metadata.cache.requests", "cache", "test", "result", result).count();
+    }
+}
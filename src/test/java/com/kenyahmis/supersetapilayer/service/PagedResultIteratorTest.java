@@ -0,0 +1,99 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PagedResultIteratorTest {
+    private static final int PAGE_SIZE = 2;
+
+    private final List<Integer> requestedPages = new ArrayList<>();
+
+    @Test
+    void stopsOnceTheReportedCountHasBeenRead() {
+        PagedResultIterator datasets = iterator(page -> page(5, page, PAGE_SIZE));
+
+        assertEquals(-1, datasets.getCount());
+        assertEquals(List.of(1, 2, 3, 4, 5), ids(datasets));
+        assertEquals(5, datasets.getCount());
+        assertEquals(List.of(0, 1, 2), requestedPages);
+    }
+
+    @Test
+    void stopsOnAnEmptyPageBeforeTheReportedCount() {
+        // Datasets deleted while paging leave the count higher than what is left to read
+        PagedResultIterator datasets = iterator(page -> page(10, page, page == 0 ? PAGE_SIZE : 0));
+
+        assertEquals(List.of(1, 2), ids(datasets));
+        assertEquals(List.of(0, 1), requestedPages);
+    }
+
+    @Test
+    void rethrowsTheFailureOfAPrefetchedPage() {
+        IllegalStateException failure = new IllegalStateException("Superset returned 503");
+        PagedResultIterator datasets = iterator(page -> {
+            if (page == 1) {
+                throw failure;
+            }
+            return page(4, page, PAGE_SIZE);
+        });
+
+        datasets.next();
+        datasets.next();
+
+        assertSame(failure, assertThrows(IllegalStateException.class, datasets::hasNext));
+    }
+
+    @Test
+    void fetchesAtMostOnePageAhead() {
+        PagedResultIterator datasets = iterator(page -> page(6, page, PAGE_SIZE));
+
+        assertTrue(datasets.hasNext());
+        assertEquals(List.of(0, 1), requestedPages);
+        datasets.next();
+        datasets.next();
+        assertEquals(List.of(0, 1), requestedPages);
+
+        datasets.next();
+        assertEquals(List.of(0, 1, 2), requestedPages);
+        datasets.next();
+        datasets.next();
+        datasets.next();
+        assertFalse(datasets.hasNext());
+        assertEquals(List.of(0, 1, 2), requestedPages);
+    }
+
+    private PagedResultIterator iterator(IntFunction<JsonNode> pages) {
+        return new PagedResultIterator(page -> {
+            requestedPages.add(page);
+            return pages.apply(page);
+        }, Runnable::run);
+    }
+
+    private static JsonNode page(int count, int page, int size) {
+        ObjectNode body = JsonNodeFactory.instance.objectNode().put("count", count);
+        ArrayNode results = body.putArray("result");
+        for (int id = page * PAGE_SIZE + 1; id <= Math.min(page * PAGE_SIZE + size, count); id++) {
+            results.addObject().put("id", id);
+        }
+        return body;
+    }
+
+    private static List<Integer> ids(PagedResultIterator datasets) {
+        List<Integer> ids = new ArrayList<>();
+        datasets.forEachRemaining(dataset -> ids.add(dataset.get("id").intValue()));
+        return ids;
+    }
+}
@@ -0,0 +1,62 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.model.RlsRule;
+import com.kenyahmis.supersetapilayer.properties.RlsRuleProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RlsProvisioningServiceTest {
+    private static final String PREFIX = "api-layer:";
+
+    @Test
+    void resolvesTablesAndRolesOfConfiguredRules() {
+        RlsRuleProperties partner = new RlsRuleProperties();
+        partner.setName("partner");
+        partner.setTables("Linelist.*");
+        partner.setRoles(List.of("Partner", "Missing"));
+        partner.setClause("PartnerName = 'X'");
+        Set<String> unknownRoles = new TreeSet<>();
+
+        List<RlsRule> desired = RlsProvisioningService.desiredRules(List.of(partner), PREFIX,
+                Map.of(1, "LinelistARTHistory", 2, "Visits", 3, "LinelistHTS"), Map.of("Partner", 7), unknownRoles);
+
+        assertEquals(List.of(new RlsRule(null, "api-layer:partner", null, "Regular", Set.of(1, 3), Set.of(7),
+                "PartnerName = 'X'", null)), desired);
+        assertEquals(Set.of("Missing"), unknownRoles);
+    }
+
+    @Test
+    void plansOnlyTheDifferences() {
+        List<RlsRule> desired = List.of(
+                rule(null, "api-layer:same", Set.of(1, 2)),
+                rule(null, "api-layer:changed", Set.of(1, 2, 3)),
+                rule(null, "api-layer:new", Set.of(4)),
+                rule(null, "api-layer:empty", Set.of()));
+        List<RlsRule> existing = List.of(
+                rule(10, "api-layer:same", Set.of(1, 2)),
+                rule(11, "api-layer:changed", Set.of(1, 2)),
+                rule(12, "api-layer:empty", Set.of(5)),
+                rule(13, "api-layer:removed", Set.of(1)),
+                rule(14, "manual", Set.of(1)));
+
+        RlsProvisioningService.RlsPlan plan = RlsProvisioningService.plan(desired, existing, PREFIX);
+
+        assertEquals(List.of("api-layer:new"), plan.create().stream().map(RlsRule::name).toList());
+        assertEquals(List.of(rule(11, "api-layer:changed", Set.of(1, 2, 3))), plan.update());
+        assertEquals(List.of(13), plan.delete());
+        assertEquals(1, plan.unchanged());
+        assertEquals(List.of("api-layer:empty"), plan.matchedNothing());
+        assertTrue(plan.delete().stream().noneMatch(id -> id == 14));
+    }
+
+    private static RlsRule rule(Integer id, String name, Set<Integer> tables) {
+        return new RlsRule(id, name, null, "Regular", new TreeSet<>(tables), Set.of(7), "1 = 1", null);
+    }
+}
@@ -0,0 +1,65 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.model.ColumnSchema;
+import com.kenyahmis.supersetapilayer.model.SchemaDiff;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaDiffEngineTest {
+    private final SchemaDiffEngine schemaDiffEngine = new SchemaDiffEngine();
+
+    @Test
+    void reportsTableAndColumnChanges() {
+        SchemaSnapshot reporting = new SchemaSnapshot();
+        reporting.addColumn("Linelist", new ColumnSchema("PatientPK", "int", 1, false));
+        reporting.addColumn("Linelist", new ColumnSchema("Gender", "nvarchar", 2, true));
+        reporting.addColumn("Linelist", new ColumnSchema("AgeGroup", "nvarchar", 3, true));
+        reporting.addColumn("NewTable", new ColumnSchema("Id", "int", 1, false));
+        reporting.addColumn("sysdiagrams", new ColumnSchema("name", "sysname", 1, false));
+
+        SchemaSnapshot superset = new SchemaSnapshot();
+        superset.addColumn("Linelist", new ColumnSchema("PatientPK", "INTEGER", 1, null));
+        superset.addColumn("Linelist", new ColumnSchema("Gender", "DATETIME", 2, null));
+        superset.addColumn("Linelist", new ColumnSchema("SiteCode", "INTEGER", 3, null));
+        superset.addColumn("OldTable", new ColumnSchema("Id", "INTEGER", 1, null));
+
+        SchemaDiff diff = schemaDiffEngine.diff(reporting, superset, Set.of("sysdiagrams"));
+
+        assertEquals(List.of("NewTable"), diff.addedTables());
+        assertEquals(List.of("OldTable"), diff.removedTables());
+        assertEquals(1, diff.changedTables().size());
+        SchemaDiff.TableDiff linelist = diff.changedTables().get(0);
+        assertEquals(List.of("AgeGroup"), linelist.addedColumns());
+        assertEquals(List.of("SiteCode"), linelist.removedColumns());
+        assertEquals(1, linelist.changedColumns().size());
+        assertEquals("Gender", linelist.changedColumns().get(0).column());
+
+        String changeLog = schemaDiffEngine.formatChangeLog(diff);
+        assertTrue(changeLog.contains("New Datasets: \n[NewTable]"));
+        assertTrue(changeLog.contains("Removed Datasets: \n[OldTable]"));
+        assertTrue(changeLog.contains("- Changed columns in Linelist: [Gender (DATETIME -> nvarchar)]"));
+    }
+
+    @Test
+    void diffsLargeSchemas() {
+        SchemaSnapshot source = new SchemaSnapshot();
+        SchemaSnapshot target = new SchemaSnapshot();
+        for (int table = 0; table < 5_000; table++) {
+            for (int column = 0; column < 200; column++) {
+                source.addColumn("Table" + table, new ColumnSchema("Column" + column, "int", column + 1, true));
+                target.addColumn("Table" + table, new ColumnSchema("Column" + (column + 1), "int", column + 1, true));
+            }
+        }
+        SchemaDiff diff = schemaDiffEngine.diff(source, target, Set.of());
+
+        assertEquals(5_000, diff.changedTables().size());
+        assertEquals(List.of("Column0"), diff.changedTables().get(0).addedColumns());
+        assertEquals(List.of("Column200"), diff.changedTables().get(0).removedColumns());
+    }
+}
@@ -0,0 +1,63 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.model.ColumnSchema;
+import com.kenyahmis.supersetapilayer.model.SchemaSnapshot;
+import com.kenyahmis.supersetapilayer.model.SnapshotInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaSnapshotStoreTest {
+
+    @Test
+    void savesAndReloadsSnapshots(@TempDir Path dataDir) {
+        SchemaSnapshotStore store = new SchemaSnapshotStore(dataDir, Duration.ofDays(90));
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        snapshot.addColumn("Linelist", new ColumnSchema("PatientPK", "int", 1, false));
+        snapshot.addColumn("Linelist", new ColumnSchema("Gender", "nvarchar", 2, true));
+        snapshot.addTable("Empty");
+
+        SnapshotInfo info = store.save(snapshot);
+        SchemaSnapshot reloaded = store.load(info.id()).orElseThrow();
+
+        assertEquals(snapshot.getTableNames(), reloaded.getTableNames());
+        assertEquals(snapshot.getColumns("Linelist"), reloaded.getColumns("Linelist"));
+        assertEquals(info.id(), store.latest().orElseThrow().id());
+    }
+
+    @Test
+    void keepsThePreviousSnapshotPastRetention(@TempDir Path dataDir) {
+        SchemaSnapshotStore store = new SchemaSnapshotStore(dataDir, Duration.ZERO);
+        SnapshotInfo last = null;
+        for (int i = 0; i < 4; i++) {
+            last = store.save(new SchemaSnapshot());
+        }
+        assertEquals(2, store.list().size());
+        assertEquals(last.id(), store.latest().orElseThrow().id());
+        assertTrue(store.load("not-a-snapshot").isEmpty());
+    }
+
+    @Test
+    void keepsSnapshotsTakenInTheSameMillisecond(@TempDir Path dataDir) {
+        SchemaSnapshotStore store = new SchemaSnapshotStore(dataDir, Duration.ofDays(90));
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            SchemaSnapshot snapshot = new SchemaSnapshot();
+            snapshot.addTable("Table" + i);
+            ids.add(store.save(snapshot).id());
+        }
+
+        assertEquals(ids, store.list().stream().map(SnapshotInfo::id).toList());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(Set.of("Table" + i), store.load(ids.get(i)).orElseThrow().getTableNames());
+        }
+    }
+}
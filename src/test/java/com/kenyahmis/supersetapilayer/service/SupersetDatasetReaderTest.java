@@ -0,0 +1,41 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.model.DatasetDetail;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SupersetDatasetReaderTest {
+
+    private final SupersetDatasetReader reader = new SupersetDatasetReader(null, null, null, new ObjectMapper(), null);
+
+    @Test
+    void readsProjectedDatasetAndSkipsOtherFields() throws IOException {
+        String json = """
+                {"id": 7, "result": {"metrics": [{"metric_name": "count"}], "table_name": "Linelist",
+                 "description": "HIV line list", "columns": [
+                   {"id": 1, "column_name": "PatientPK", "type": "INT", "is_dttm": false, "changed_on": "2024-01-01",
+                    "extra": null, "type_generic": 0},
+                   {"id": 2, "column_name": "DOB", "type": "DATE", "is_dttm": true, "verbose_name": "Date of birth"}
+                 ], "owners": [{"id": 1}]},
+                 "show_columns": ["table_name"]}
+                """;
+
+        DatasetDetail dataset = reader.read(7, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("Linelist", dataset.tableName());
+        assertEquals("HIV line list", dataset.description());
+        assertEquals(2, dataset.columns().size());
+        assertEquals("PatientPK", dataset.columns().get(0).columnName());
+        assertNull(dataset.columns().get(0).extra());
+        assertTrue(dataset.columns().get(1).dttm());
+        assertEquals("Date of birth", dataset.columns().get(1).verboseName());
+    }
+}
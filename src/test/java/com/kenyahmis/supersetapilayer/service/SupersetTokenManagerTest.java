@@ -0,0 +1,160 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.properties.SupersetApiProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SupersetTokenManagerTest {
+    private HttpServer server;
+    private SupersetTokenManager tokenManager;
+    private final SupersetApiProperties properties = new SupersetApiProperties();
+    private final AtomicInteger logins = new AtomicInteger();
+    private final AtomicInteger refreshes = new AtomicInteger();
+    private volatile Duration accessTokenLifetime = Duration.ofHours(1);
+    private volatile long loginDelayMillis;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/security/login", exchange -> {
+            int login = logins.incrementAndGet();
+            sleep(loginDelayMillis);
+            respond(exchange, String.format("{\"access_token\": \"%s\", \"refresh_token\": \"%s\"}",
+                    jwt("login-" + login, accessTokenLifetime), jwt("refresh-" + login, Duration.ofDays(1))));
+        });
+        server.createContext("/api/v1/security/refresh", exchange -> {
+            int refresh = refreshes.incrementAndGet();
+            respond(exchange, String.format("{\"access_token\": \"%s\"}",
+                    jwt("refreshed-" + refresh, accessTokenLifetime)));
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        properties.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        properties.setUsername("admin");
+        properties.setPassword("admin");
+        properties.setProvider("db");
+        properties.setRefresh("true");
+        tokenManager = new SupersetTokenManager(RestClient.create(), properties, new ObjectMapper());
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void reusesTheTokenUntilItIsAboutToExpire() {
+        String first = tokenManager.getAccessToken();
+        assertEquals(first, tokenManager.getAccessToken());
+        assertEquals(1, logins.get());
+        assertEquals(0, refreshes.get());
+
+        // Inside the refresh-ahead window the token is renewed through the refresh token, not a new login
+        accessTokenLifetime = Duration.ofSeconds(30);
+        tokenManager.invalidate(first);
+        String shortLived = tokenManager.getAccessToken();
+        String renewed = tokenManager.getAccessToken();
+
+        assertNotEquals(shortLived, renewed);
+        assertEquals(1, logins.get());
+        assertEquals(2, refreshes.get());
+    }
+
+    @Test
+    void concurrentCallersShareOneRenewal() throws Exception {
+        loginDelayMillis = 200;
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch ready = new CountDownLatch(callers);
+        List<Future<String>> tokens = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                tokens.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return tokenManager.getAccessToken();
+                }));
+            }
+            Set<String> distinct = ConcurrentHashMap.newKeySet();
+            for (Future<String> token : tokens) {
+                distinct.add(token.get());
+            }
+
+            assertEquals(1, distinct.size());
+            assertEquals(1, logins.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void renewsAndRetriesOnceWhenTheTokenIsRejected() {
+        String rejected = tokenManager.getAccessToken();
+        List<String> used = new ArrayList<>();
+
+        String result = tokenManager.withAccessToken(token -> {
+            used.add(token);
+            if (token.equals(rejected)) {
+                throw HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized", null, null, null);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(2, used.size());
+        assertNotEquals(rejected, used.get(1));
+        assertEquals(used.get(1), tokenManager.getAccessToken());
+    }
+
+    private static String jwt(String subject, Duration lifetime) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String claims = String.format("{\"sub\": \"%s\", \"exp\": %d}", subject,
+                Instant.now().plus(lifetime).getEpochSecond());
+        return encoder.encodeToString("{\"alg\": \"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kenyahmis.supersetapilayer.metrics.OutboundMetrics;
+import com.kenyahmis.supersetapilayer.model.JobProgress;
+import com.kenyahmis.supersetapilayer.model.TargetResult;
+import com.kenyahmis.supersetapilayer.properties.MetadataCacheProperties;
+import com.kenyahmis.supersetapilayer.properties.RlsProperties;
+import com.kenyahmis.supersetapilayer.properties.StorageProperties;
+import com.kenyahmis.supersetapilayer.properties.TargetProperties;
+import com.kenyahmis.supersetapilayer.properties.TargetsProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TargetServiceTest {
+    private static final String SUBJECT = "Self-service Change log";
+
+    @TempDir
+    private Path dataDir;
+    private HttpServer kenya;
+    private HttpServer uganda;
+    private GenericApplicationContext parent;
+    private TargetService targetService;
+    private final TargetsProperties targetsProperties = new TargetsProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private volatile int ugandaListingStatus = 200;
+    private volatile int ugandaRefreshStatus = 200;
+
+    @BeforeEach
+    void createTargets() throws IOException {
+        kenya = supersetStub(List.of(1, 2), () -> 200, () -> 200);
+        uganda = supersetStub(List.of(7), () -> ugandaListingStatus, () -> ugandaRefreshStatus);
+        targetsProperties.setInstances(List.of(target("kenya", kenya), target("uganda", uganda)));
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setDataDir(dataDir.toString());
+
+        parent = new GenericApplicationContext();
+        parent.registerBean(ObjectMapper.class, () -> Jackson2ObjectMapperBuilder.json().build());
+        parent.registerBean(OutboundMetrics.class, () -> new OutboundMetrics(meterRegistry));
+        parent.registerBean(MetadataCache.class, () -> new MetadataCache(new MetadataCacheProperties(),
+                new OutboundMetrics(meterRegistry)));
+        parent.registerBean(EmailService.class, () -> new EmailService(null));
+        parent.registerBean(SchemaDiffEngine.class);
+        parent.registerBean(MailProperties.class);
+        parent.registerBean(RlsProperties.class);
+        parent.refresh();
+        targetService = new TargetService(targetsProperties, storageProperties, parent);
+    }
+
+    @AfterEach
+    void stopTargets() {
+        targetService.shutdown();
+        parent.close();
+        kenya.stop(0);
+        uganda.stop(0);
+    }
+
+    @Test
+    void routesOperationsToEachTarget() {
+        Map<String, TargetResult> results = targetService.runOnTargets(List.of("kenya", "uganda"),
+                (apiService, progress) -> apiService.getDatasetIds(), JobProgress.NONE);
+
+        assertEquals(List.of(1, 2), results.get("kenya").result());
+        assertEquals(List.of(7), results.get("uganda").result());
+        assertTrue(results.values().stream().allMatch(result -> result.status() == TargetResult.TargetStatus.SUCCEEDED));
+        // Both listings went through the metrics interceptor of their target's RestClient
+        assertEquals(2, meterRegistry.find("outbound.requests").tag("system", OutboundMetrics.SUPERSET).timers()
+                .stream().filter(timer -> timer.getId().getTag("endpoint").contains("dataset"))
+                .mapToLong(Timer::count).sum());
+    }
+
+    @Test
+    void failsOnlyTheTargetWhoseSupersetIsDown() {
+        ugandaListingStatus = 503;
+
+        Map<String, TargetResult> results = targetService.runOnTargets(List.of("kenya", "uganda"),
+                (apiService, progress) -> apiService.getDatasetIds(), JobProgress.NONE);
+
+        assertEquals(TargetResult.TargetStatus.SUCCEEDED, results.get("kenya").status());
+        assertEquals(List.of(1, 2), results.get("kenya").result());
+        assertEquals(TargetResult.TargetStatus.FAILED, results.get("uganda").status());
+        assertTrue(results.get("uganda").error().contains("503"), results.get("uganda").error());
+    }
+
+    @Test
+    void prefixesItemFailuresWithTheTargetName() {
+        ugandaRefreshStatus = 500;
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        JobProgress progress = new JobProgress() {
+            @Override
+            public void itemFailed(String item, String reason) {
+                failures.put(item, reason);
+            }
+        };
+
+        Map<String, TargetResult> results = targetService.runOnTargets(List.of("kenya", "uganda"),
+                (apiService, targetProgress) -> apiService.refreshDatasets(false, targetProgress), progress);
+
+        assertEquals(Set.of("uganda/7"), failures.keySet());
+        assertTrue(failures.get("uganda/7").startsWith("500"), failures.get("uganda/7"));
+        assertEquals(TargetResult.TargetStatus.SUCCEEDED, results.get("kenya").status());
+    }
+
+    @Test
+    void leavesTheBoundPropertiesAlone() {
+        targetService.getApiService("kenya").orElseThrow();
+
+        assertEquals(SUBJECT, targetsProperties.getInstances().get(0).getSuperset().getChangeLogSubject());
+        assertEquals(SUBJECT, targetsProperties.getInstances().get(1).getSuperset().getChangeLogSubject());
+    }
+
+    private static TargetProperties target(String name, HttpServer server) {
+        TargetProperties target = new TargetProperties();
+        target.setName(name);
+        target.getSuperset().setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        target.getSuperset().setUsername("admin");
+        target.getSuperset().setPassword("admin");
+        target.getSuperset().setProvider("db");
+        target.getSuperset().setRefresh("true");
+        return target;
+    }
+
+    private static HttpServer supersetStub(List<Integer> datasetIds, IntSupplier listingStatus,
+                                           IntSupplier refreshStatus) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/security/login", exchange ->
+                respond(exchange, 200, "{\"access_token\": \"token\", \"refresh_token\": \"refresh\"}"));
+        server.createContext("/api/v1/dataset/", exchange -> {
+            if (exchange.getRequestURI().getPath().endsWith("/refresh")) {
+                respond(exchange, refreshStatus.getAsInt(), "{\"message\": \"OK\"}");
+                return;
+            }
+            respond(exchange, listingStatus.getAsInt(), String.format(
+                    "{\"count\": %d, \"result\": [%s]}", datasetIds.size(), datasetIds.stream()
+                            .map(id -> "{\"id\": " + id + "}").collect(Collectors.joining(","))));
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
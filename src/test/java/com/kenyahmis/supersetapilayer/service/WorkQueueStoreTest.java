@@ -0,0 +1,150 @@
+package com.kenyahmis.supersetapilayer.service;
+
+import com.kenyahmis.supersetapilayer.model.WorkQueueRun;
+import com.kenyahmis.supersetapilayer.model.WorkQueueTask;
+import com.kenyahmis.supersetapilayer.properties.WorkQueueProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+class WorkQueueStoreTest {
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createSchema() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        store("setup", Duration.ofMinutes(2), 3).createSchema();
+        jdbcTemplate.execute("TRUNCATE api_layer_run CASCADE");
+    }
+
+    @Test
+    void claimSkipsTasksLockedByAnotherTransaction() throws Exception {
+        WorkQueueStore store = store("worker-a", Duration.ofMinutes(2), 3);
+        store.createRun("refresh", List.of(1, 2, 3, 4));
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            Set<Long> locked = new HashSet<>();
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT id FROM api_layer_task ORDER BY id LIMIT 2 FOR UPDATE")) {
+                while (rs.next()) {
+                    locked.add(rs.getLong(1));
+                }
+            }
+
+            List<WorkQueueTask> claimed = store.claim(10);
+
+            assertEquals(List.of(3, 4), claimed.stream().map(WorkQueueTask::datasetId).toList());
+            assertTrue(claimed.stream().noneMatch(task -> locked.contains(task.id())));
+            connection.rollback();
+        }
+        assertEquals(List.of(1, 2), store("worker-b", Duration.ofMinutes(2), 3).claim(10).stream()
+                .map(WorkQueueTask::datasetId).toList());
+    }
+
+    @Test
+    void takesOverTasksWhoseLeaseExpired() throws InterruptedException {
+        WorkQueueStore crashed = store("worker-a", Duration.ZERO, 3);
+        WorkQueueStore survivor = store("worker-b", Duration.ofMinutes(2), 3);
+        crashed.createRun("refresh", List.of(1));
+        WorkQueueTask first = crashed.claim(10).get(0);
+        Thread.sleep(10);
+
+        List<WorkQueueTask> takenOver = survivor.claim(10);
+
+        assertEquals(1, takenOver.size());
+        assertEquals(first.id(), takenOver.get(0).id());
+        assertEquals(2, takenOver.get(0).attempts());
+        assertFalse(crashed.complete(first));
+        assertTrue(survivor.complete(takenOver.get(0)));
+    }
+
+    @Test
+    void failsTasksOnTheirLastAttempt() {
+        WorkQueueStore store = store("worker-a", Duration.ofMinutes(2), 2);
+        String runId = store.createRun("description", List.of(1, 2));
+        List<WorkQueueTask> claimed = store.claim(10);
+        assertTrue(store.fail(claimed.get(0), "Timed out", true));
+        assertTrue(store.fail(claimed.get(1), "Not found", false));
+
+        List<WorkQueueTask> retried = store.claim(10);
+        assertEquals(1, retried.size());
+        assertEquals(2, retried.get(0).attempts());
+        assertTrue(store.fail(retried.get(0), "Timed out", true));
+
+        assertTrue(store.claim(10).isEmpty());
+        assertEquals(List.of(runId), store.completeRuns());
+        WorkQueueRun run = store.getRun(runId).orElseThrow();
+        assertEquals(2, run.failed());
+        assertEquals(0, run.done());
+    }
+
+    @Test
+    void completesRunsOnceNoTaskIsOpen() throws InterruptedException {
+        WorkQueueStore store = store("worker-a", Duration.ofMinutes(2), 3);
+        String runId = store.createRun("refresh", List.of(1, 2, 3));
+        List<WorkQueueTask> claimed = store.claim(10);
+        store.complete(claimed.get(0));
+        store.complete(claimed.get(1));
+
+        assertTrue(store.completeRuns().isEmpty());
+        assertEquals(WorkQueueRun.RunStatus.RUNNING, store.getRun(runId).orElseThrow().status());
+
+        // The worker holding the last task disappears on its final attempt
+        WorkQueueStore crashed = store("worker-b", Duration.ZERO, 1);
+        jdbcTemplate.update("UPDATE api_layer_task SET status = 'PENDING', lease_owner = NULL, attempts = 0 "
+                + "WHERE id = ?", claimed.get(2).id());
+        crashed.claim(10);
+        Thread.sleep(10);
+
+        assertEquals(List.of(runId), crashed.completeRuns());
+        WorkQueueRun run = store.getRun(runId).orElseThrow();
+        assertEquals(WorkQueueRun.RunStatus.COMPLETED, run.status());
+        assertEquals(3, run.total());
+        assertEquals(2, run.done());
+        assertEquals(1, run.failed());
+    }
+
+    @Test
+    void createsNothingWhenEnqueueingFails() {
+        WorkQueueStore store = store("worker-a", Duration.ofMinutes(2), 3);
+
+        // The unique (run_id, dataset_id) constraint rejects the second task for dataset 2
+        assertThrows(DataAccessException.class, () -> store.createRun("refresh", List.of(1, 2, 2)));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM api_layer_run", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM api_layer_task", Integer.class));
+    }
+
+    private WorkQueueStore store(String workerId, Duration leaseDuration, int maxAttempts) {
+        WorkQueueProperties properties = new WorkQueueProperties();
+        properties.setWorkerId(workerId);
+        properties.setLeaseDuration(leaseDuration);
+        properties.setMaxAttempts(maxAttempts);
+        return new WorkQueueStore(jdbcTemplate, properties);
+    }
+}